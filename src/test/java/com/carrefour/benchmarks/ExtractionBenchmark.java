@@ -0,0 +1,74 @@
+package com.carrefour.benchmarks;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.restassured.path.json.JsonPath;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de extrair o {@code _id} de uma resposta: {@code response.jsonPath().getString(...)}
+ * (Groovy GPath, parse completo a cada chamada) contra árvore e streaming do Jackson.
+ *
+ * {@code create} é a resposta do POST {@code /usuarios}; {@code user} é a do GET {@code /usuarios/{id}}.
+ *
+ * Execução (com taxa de alocação): {@code mvn -Pbenchmarks test -Djmh.args="ExtractionBenchmark -prof gc"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExtractionBenchmark {
+
+    private static final String CREATE_RESPONSE =
+            "{\"message\":\"Cadastro realizado com sucesso\",\"_id\":\"3JMkGdVG37HlBwov\"}";
+    private static final String USER_RESPONSE =
+            "{\"nome\":\"Usuário Positivo\",\"email\":\"positive-1700000000000-1a2b3c4d@qa.com\","
+                    + "\"password\":\"Abc12345\",\"administrador\":\"false\",\"_id\":\"3JMkGdVG37HlBwov\"}";
+
+    @Param({"create", "user"})
+    public String response;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final JsonFactory factory = mapper.getFactory();
+
+    private String body;
+    private byte[] bytes;
+
+    @Setup
+    public void setup() {
+        body = "create".equals(response) ? CREATE_RESPONSE : USER_RESPONSE;
+        bytes = body.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public String restAssuredJsonPath() {
+        return new JsonPath(body).getString("_id");
+    }
+
+    @Benchmark
+    public String jacksonTree() throws IOException {
+        return mapper.readTree(bytes).get("_id").asText();
+    }
+
+    @Benchmark
+    public String jacksonStreaming() throws IOException {
+        try (JsonParser parser = factory.createParser(bytes)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.FIELD_NAME && "_id".equals(parser.getCurrentName())) {
+                    parser.nextToken();
+                    return parser.getText();
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.carrefour.benchmarks;
+
+import com.carrefour.utils.FlightEvents;
+import jdk.jfr.Recording;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de instrumentar um trecho com os eventos do {@link FlightEvents}, do jeito que os
+ * filtros fazem ({@code begin}/{@code end}/{@code shouldCommit} e os campos só dentro
+ * do {@code if}), contra o mesmo trecho sem evento.
+ *
+ * {@code recording=off} é o caso da suíte sem {@code -Pjfr}: a diferença para
+ * {@code noEvent} é o overhead real da instrumentação desligada. Com {@code on} uma
+ * gravação em memória habilita os eventos da categoria e cada chamada grava um.
+ *
+ * Execução: {@code mvn -Pbenchmarks test -Djmh.args="FlightEventsBenchmark -prof gc"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlightEventsBenchmark {
+
+    @Param({"off", "on"})
+    public String recording;
+
+    private Recording jfr;
+    private long status;
+
+    @Setup(Level.Trial)
+    public void start() {
+        if ("on".equals(recording)) {
+            jfr = new Recording();
+            jfr.enable("com.carrefour.HttpRequest").withoutStackTrace();
+            jfr.enable("com.carrefour.RateLimiterWait").withThreshold(Duration.ZERO);
+            jfr.setToDisk(false);
+            jfr.start();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        if (jfr != null) {
+            jfr.close();
+        }
+    }
+
+    @Benchmark
+    public long noEvent() {
+        return ++status;
+    }
+
+    @Benchmark
+    public long httpRequestEvent() {
+        FlightEvents.HttpRequest event = new FlightEvents.HttpRequest();
+        event.begin();
+        long result = ++status;
+        event.end();
+        if (event.shouldCommit()) {
+            event.method = "GET";
+            event.path = "/usuarios/{id}";
+            event.status = (int) result;
+            event.client = "RestAssured";
+            event.commit();
+        }
+        return result;
+    }
+
+    @Benchmark
+    public long rateLimiterWaitEvent() {
+        FlightEvents.RateLimiterWait event = new FlightEvents.RateLimiterWait();
+        event.begin();
+        long result = ++status;
+        event.end();
+        if (event.shouldCommit()) {
+            event.rpm = 600;
+            event.commit();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,80 @@
+package com.carrefour.benchmarks;
+
+import com.carrefour.utils.Log;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo, para quem loga, de uma linha por requisição com 4 threads: o
+ * {@code System.out.println} anterior, o {@link Log} síncrono, o assíncrono e o
+ * nível desligado (padrão). A saída vai para {@code target/log-benchmark.out}.
+ *
+ * O appender assíncrono descarta DEBUG com o buffer cheio, então o seu número é o
+ * custo de publicar, não o de escrever tudo.
+ *
+ * Execução: {@code mvn -Pbenchmarks test -Djmh.args="LogBenchmark"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+public class LogBenchmark {
+
+    private static final Log LOG = Log.get("EDGE");
+
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void redirect() throws FileNotFoundException {
+        originalOut = System.out;
+        System.setOut(new PrintStream(new FileOutputStream("target/log-benchmark.out"), false));
+    }
+
+    @TearDown(Level.Trial)
+    public void restore() {
+        Log.flush();
+        System.out.close();
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    @Fork(1)
+    public void systemOutPrintln(Status status) {
+        System.out.println("[EDGE] Status duplicação: " + status.next());
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"-Dlog.level=DEBUG", "-Dlog.async=false"})
+    public void logSync(Status status) {
+        LOG.debug("Status duplicação: {}", status.next());
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dlog.level=DEBUG")
+    public void logAsync(Status status) {
+        LOG.debug("Status duplicação: {}", status.next());
+    }
+
+    @Benchmark
+    @Fork(1)
+    public void logDisabled(Status status) {
+        LOG.debug("Status duplicação: {}", status.next());
+    }
+
+    /** Status HTTP variando por thread, para a mensagem não ser constante. */
+    @State(Scope.Thread)
+    public static class Status {
+
+        private int value = 200;
+
+        int next() {
+            return value = value == 200 ? 400 : 200;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.carrefour.benchmarks;
+
+import com.carrefour.models.User;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de montar o corpo de um POST/PUT {@code /usuarios}: o text block com
+ * {@code String.formatted} usado hoje nos testes contra a serialização Jackson do
+ * modelo {@link User}.
+ *
+ * Execução (com taxa de alocação): {@code mvn -Pbenchmarks test -Djmh.args="PayloadBenchmark -prof gc"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PayloadBenchmark {
+
+    private static final String USER_TEMPLATE = """
+            {
+              "nome": "Usuário Positivo",
+              "email": "%s",
+              "password": "Abc12345",
+              "administrador": "false"
+            }
+            """;
+
+    private final ObjectMapper mapper = new ObjectMapper()
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+    private String email;
+
+    @Setup
+    public void setup() {
+        email = "positive-1700000000000-1a2b3c4d@qa.com";
+    }
+
+    @Benchmark
+    public String textBlockFormatted() {
+        return USER_TEMPLATE.formatted(email);
+    }
+
+    @Benchmark
+    public String jacksonUserToString() throws JsonProcessingException {
+        return mapper.writeValueAsString(newUser());
+    }
+
+    @Benchmark
+    public byte[] jacksonUserToBytes() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(newUser());
+    }
+
+    private User newUser() {
+        return User.builder()
+                .nome("Usuário Positivo")
+                .email(email)
+                .password("Abc12345")
+                .administrador("false")
+                .build();
+    }
+}
@@ -0,0 +1,113 @@
+package com.carrefour.benchmarks;
+
+import com.carrefour.utils.TokenBucket;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara o {@link TokenBucket} com a implementação anterior do RateLimiter
+ * (janela fixa + {@code static synchronized} + {@code Thread.sleep} segurando o monitor)
+ * com 1, 8 e 64 threads concorrentes.
+ *
+ * {@code permitsPerSecond} alto mede só o custo de coordenação (CAS vs monitor);
+ * o valor baixo força o limitador a segurar as threads.
+ *
+ * Execução: {@code mvn -Pbenchmarks test -Djmh.args="RateLimiterBenchmark"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    @Param({"1000000000", "20000"})
+    public int permitsPerSecond;
+
+    private TokenBucket tokenBucket;
+    private FixedWindowRateLimiter fixedWindow;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        tokenBucket = new TokenBucket(permitsPerSecond, Math.max(1, permitsPerSecond / 100));
+        fixedWindow = new FixedWindowRateLimiter(permitsPerSecond, 1_000L);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void tokenBucket_1() {
+        tokenBucket.acquire();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void tokenBucket_8() {
+        tokenBucket.acquire();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void tokenBucket_64() {
+        tokenBucket.acquire();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void fixedWindow_1() {
+        fixedWindow.acquire();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void fixedWindow_8() {
+        fixedWindow.acquire();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void fixedWindow_64() {
+        fixedWindow.acquire();
+    }
+
+    /**
+     * Cópia fiel do RateLimiter original, apenas parametrizada (limite e janela)
+     * e transformada em instância para o benchmark.
+     */
+    static final class FixedWindowRateLimiter {
+
+        private final int maxRequests;
+        private final long windowMs;
+
+        private int requestCount = 0;
+        private long windowStart = System.currentTimeMillis();
+
+        FixedWindowRateLimiter(int maxRequests, long windowMs) {
+            this.maxRequests = maxRequests;
+            this.windowMs = windowMs;
+        }
+
+        synchronized void acquire() {
+            long now = System.currentTimeMillis();
+
+            if (now - windowStart >= windowMs) {
+                windowStart = now;
+                requestCount = 0;
+            }
+
+            if (requestCount >= maxRequests) {
+                long waitTime = windowMs - (now - windowStart);
+                try {
+                    Thread.sleep(waitTime);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                windowStart = System.currentTimeMillis();
+                requestCount = 0;
+            }
+
+            requestCount++;
+        }
+    }
+}
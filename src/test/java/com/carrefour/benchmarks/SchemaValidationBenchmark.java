@@ -0,0 +1,71 @@
+package com.carrefour.benchmarks;
+
+import com.carrefour.utils.SchemaValidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.restassured.path.json.JsonPath;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo por resposta do {@link SchemaValidator}: validação completa em streaming contra
+ * o parse que os testes já fazem para ler um campo ({@code jsonPath()}) e contra só
+ * montar a árvore do Jackson.
+ *
+ * {@code user} é a resposta do GET {@code /usuarios/{id}}; {@code list} é uma listagem
+ * com {@code users} usuários.
+ *
+ * Execução (com taxa de alocação): {@code mvn -Pbenchmarks test -Djmh.args="SchemaValidationBenchmark -prof gc"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SchemaValidationBenchmark {
+
+    private static final String USER = "{\"nome\":\"Usuário Positivo\",\"email\":\"positive-1700000000000-%08x@qa.com\","
+            + "\"password\":\"Abc12345\",\"administrador\":\"false\",\"_id\":\"3JMkGdVG37Hl%04d\"}";
+
+    @Param({"1", "100"})
+    public int users;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private byte[] bytes;
+    private String body;
+    private SchemaValidator.Schema schema;
+
+    @Setup
+    public void setup() {
+        StringBuilder json = new StringBuilder("{\"quantidade\":").append(users).append(",\"usuarios\":[");
+        for (int i = 0; i < users; i++) {
+            json.append(i > 0 ? "," : "").append(String.format(USER, i, i));
+        }
+        body = json.append("]}").toString();
+        bytes = body.getBytes(StandardCharsets.UTF_8);
+        schema = SchemaValidator.compile("get-usuarios-200.json");
+        if (!schema.validate(bytes).isEmpty()) {
+            throw new IllegalStateException("Corpo de exemplo fora do contrato: " + schema.validate(bytes));
+        }
+    }
+
+    @Benchmark
+    public List<String> schemaStreaming() {
+        return schema.validate(bytes);
+    }
+
+    @Benchmark
+    public Object jacksonTree() throws IOException {
+        return mapper.readTree(bytes);
+    }
+
+    @Benchmark
+    public int restAssuredJsonPath() {
+        return new JsonPath(body).getInt("quantidade");
+    }
+}
@@ -0,0 +1,54 @@
+package com.carrefour.benchmarks;
+
+import com.carrefour.utils.TestIdentity;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Geração de e-mail único: o {@code gerarEmailUnico} anterior
+ * ({@code currentTimeMillis} + {@code UUID.randomUUID()}) contra o {@link TestIdentity},
+ * com 1 e 8 threads.
+ *
+ * Execução: {@code mvn -Pbenchmarks test -Djmh.args="TestIdentityBenchmark -prof gc"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TestIdentityBenchmark {
+
+    @Benchmark
+    @Threads(1)
+    public String uuid_1() {
+        return gerarEmailUnico("positive");
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String uuid_8() {
+        return gerarEmailUnico("positive");
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String testIdentity_1() {
+        return TestIdentity.email("positive");
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String testIdentity_8() {
+        return TestIdentity.email("positive");
+    }
+
+    /** Cópia do método auxiliar que existia em {@code UserApiPositiveTests}. */
+    private static String gerarEmailUnico(String prefixo) {
+        long ts = System.currentTimeMillis();
+        String uuid = UUID.randomUUID().toString().substring(0, 8);
+        return prefixo + "-" + ts + "-" + uuid + "@qa.com";
+    }
+}
@@ -0,0 +1,22 @@
+package com.carrefour.extensions;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca um parâmetro {@code String} que deve receber o token JWT do principal indicado.
+ * Resolvido pelo {@link TokenPoolExtension}.
+ *
+ * <pre>
+ * &#64;BeforeAll
+ * static void setup(&#64;AuthToken(Principal.ADMIN) String token) { ... }
+ * </pre>
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AuthToken {
+
+    Principal value() default Principal.ADMIN;
+}
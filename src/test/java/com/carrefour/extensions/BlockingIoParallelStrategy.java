@@ -0,0 +1,80 @@
+package com.carrefour.extensions;
+
+import org.junit.platform.engine.ConfigurationParameters;
+import org.junit.platform.engine.support.hierarchical.ParallelExecutionConfiguration;
+import org.junit.platform.engine.support.hierarchical.ParallelExecutionConfigurationStrategy;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+
+/**
+ * Paralelismo do JUnit dimensionado para testes que passam quase todo o tempo
+ * esperando I/O. Compila no Java 17 com o resto da suíte; quem a liga é o perfil
+ * {@code java21}, e em outro JDK bastam as mesmas duas propriedades do perfil
+ * ({@code ...parallel.config.strategy=custom} e {@code ...parallel.config.custom.class}).
+ *
+ * A estratégia {@code dynamic} multiplica os núcleos por um fator; num runner de CI
+ * com 1 ou 2 núcleos isso dá poucas threads, e numa máquina grande dá mais threads do
+ * que conexões no pool HTTP, deixando testes parados esperando conexão. Aqui são
+ * {@code factor} threads por núcleo, limitadas pelas conexões por host do
+ * {@code HttpClientPool}: cada teste em execução tem a sua conexão. Quando todos os
+ * workers estão bloqueados o pool não cria threads de compensação além do limite
+ * (predicado de saturação), em vez de falhar com {@code RejectedExecutionException}.
+ *
+ * O executor do JUnit 5.10 é um {@link ForkJoinPool} de threads de plataforma e não
+ * pode ser trocado; as threads virtuais ficam com o modo de carga
+ * ({@code com.carrefour.load.VirtualUserLoad}).
+ *
+ * Configuração (junit-platform.properties ou {@code -D}):
+ * <ul>
+ *   <li>{@code junit.jupiter.execution.parallel.config.custom.factor} – threads por núcleo (padrão 16)</li>
+ *   <li>{@code junit.jupiter.execution.parallel.config.custom.max} – teto (padrão {@code http.pool.maxPerRoute}, 32)</li>
+ * </ul>
+ */
+public class BlockingIoParallelStrategy implements ParallelExecutionConfigurationStrategy {
+
+    private static final String PREFIX = "junit.jupiter.execution.parallel.config.custom.";
+    private static final int KEEP_ALIVE_SECONDS = 30;
+
+    @Override
+    public ParallelExecutionConfiguration createConfiguration(ConfigurationParameters parameters) {
+        int factor = parameters.get(PREFIX + "factor", Integer::valueOf).orElse(16);
+        int max = parameters.get(PREFIX + "max", Integer::valueOf)
+                .orElse(Integer.getInteger("http.pool.maxPerRoute", 32));
+        int parallelism = Math.max(1, Math.min(max, factor * Runtime.getRuntime().availableProcessors()));
+        return new Configuration(parallelism);
+    }
+
+    private record Configuration(int parallelism) implements ParallelExecutionConfiguration {
+
+        @Override
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        @Override
+        public int getMinimumRunnable() {
+            return 1;
+        }
+
+        @Override
+        public int getMaxPoolSize() {
+            return parallelism;
+        }
+
+        @Override
+        public int getCorePoolSize() {
+            return parallelism;
+        }
+
+        @Override
+        public int getKeepAliveSeconds() {
+            return KEEP_ALIVE_SECONDS;
+        }
+
+        @Override
+        public Predicate<? super ForkJoinPool> getSaturatePredicate() {
+            return pool -> true;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.carrefour.extensions;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca um parâmetro {@link FixtureUser} que deve receber um usuário do
+ * {@link UserFixturePool}. Resolvido pelo {@link UserFixtureExtension}.
+ *
+ * Leituras compartilham o usuário com outros testes; quem vai alterá-lo (PUT)
+ * deve pedir {@code exclusive = true} e devolvê-lo como encontrou. Um exclusivo junto com
+ * outro empréstimo no mesmo teste pede {@code fixtures.size} >= 2; senão o segundo falha
+ * na hora, em vez de esperar pelo usuário que o próprio teste segura.
+ *
+ * <pre>
+ * &#64;Test
+ * void teste(&#64;Fixture FixtureUser existente, &#64;Fixture(exclusive = true) FixtureUser alvo) { ... }
+ * </pre>
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Fixture {
+
+    boolean exclusive() default false;
+}
@@ -0,0 +1,7 @@
+package com.carrefour.extensions;
+
+/**
+ * Usuário já cadastrado, emprestado pelo {@link UserFixturePool}.
+ */
+public record FixtureUser(String id, String nome, String email, String password) {
+}
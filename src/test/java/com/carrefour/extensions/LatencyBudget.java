@@ -0,0 +1,49 @@
+package com.carrefour.extensions;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Orçamento de latência do teste: o percentil {@link #p()} das requisições feitas pelo
+ * teste (sem a espera no limitador) não pode passar de {@link #millis()}. Contra o
+ * stand-in o método é executado {@link #warmup()} + {@link #repetitions()} vezes; contra
+ * a API real, uma vez. Com menos de {@link #minSamples()} requisições medidas o
+ * percentil não quer dizer nada: o resultado vai para o Allure, mas não reprova. Na
+ * classe vale para todos os métodos de teste (a anotação do método tem precedência).
+ *
+ * Cada repetição roda o corpo do teste de novo, com as suas asserções, mas sem
+ * {@code @BeforeEach}; use em testes que podem ser repetidos (dados únicos por execução,
+ * sem estado entre métodos).
+ *
+ * <pre>
+ * &#64;Test
+ * &#64;LatencyBudget(p = 95, millis = 300)
+ * void createUser_successful() { ... }
+ * </pre>
+ *
+ * Resolvido pelo {@link LatencyBudgetExtension}.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(LatencyBudgetExtension.class)
+public @interface LatencyBudget {
+
+    /** Percentil verificado (0–100). */
+    double p() default 95;
+
+    /** Limite para o percentil, em milissegundos. */
+    long millis();
+
+    /** Execuções medidas (só contra o stand-in). */
+    int repetitions() default 20;
+
+    /** Execuções iniciais descartadas (aquecimento de JIT e conexões; só contra o stand-in). */
+    int warmup() default 1;
+
+    /** Requisições medidas a partir das quais o orçamento reprova o teste. */
+    int minSamples() default 10;
+}
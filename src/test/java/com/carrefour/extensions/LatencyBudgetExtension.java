@@ -0,0 +1,119 @@
+package com.carrefour.extensions;
+
+import com.carrefour.utils.ApiConfig;
+import com.carrefour.utils.LatencyRecorder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.qameta.allure.Allure;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.InvocationInterceptor;
+import org.junit.jupiter.api.extension.ReflectiveInvocationContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.junit.platform.commons.support.ReflectionSupport;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Mede as requisições feitas pelos testes anotados com {@link LatencyBudget} e reprova
+ * o teste se o percentil estourar o orçamento. O resultado (percentil, p50, máximo,
+ * orçamento) vai como anexo para o Allure do próprio teste.
+ *
+ * Só reprova com pelo menos {@code minSamples} requisições medidas: abaixo disso o
+ * "p95" é praticamente a chamada mais lenta, e uma ida lenta à rede derrubaria o build.
+ * É o caso normal contra a API real, em que o método roda uma vez; lá o orçamento vira
+ * só registro no Allure.
+ *
+ * As amostras são as latências de cada chamada, vindas do {@link LatencyRecorder} da
+ * thread do teste: a espera no {@link com.carrefour.utils.RateLimiter}, as asserções e o
+ * restante do método ficam de fora, e o orçamento compara só a API.
+ *
+ * Contra o stand-in ({@link ApiConfig#isLocal()}) o método roda {@code warmup +
+ * repetitions} vezes: a primeira segue o fluxo normal do JUnit e as seguintes chamam o
+ * método de novo na mesma instância, sem {@code @BeforeEach}. Contra a API real ele roda
+ * uma vez só, para não criar dados em série no ambiente compartilhado.
+ *
+ * Configuração via system properties:
+ * <ul>
+ *   <li>{@code latency.budget.factor} – multiplica todos os orçamentos, para alvos mais
+ *       lentos ou mais rápidos que o de referência (padrão 1.0)</li>
+ *   <li>{@code latency.budget.skip} – {@code true} executa cada teste uma vez só, sem medir</li>
+ * </ul>
+ */
+public class LatencyBudgetExtension implements InvocationInterceptor {
+
+    private static final double FACTOR = Double.parseDouble(System.getProperty("latency.budget.factor", "1.0"));
+    private static final boolean SKIP = Boolean.getBoolean("latency.budget.skip");
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    @Override
+    public void interceptTestMethod(Invocation<Void> invocation, ReflectiveInvocationContext<Method> invocationContext,
+                                    ExtensionContext extensionContext) throws Throwable {
+        Optional<LatencyBudget> budget = findBudget(extensionContext);
+        if (budget.isEmpty() || SKIP) {
+            invocation.proceed();
+            return;
+        }
+        LatencyBudget spec = budget.get();
+        boolean repeat = ApiConfig.isLocal();
+        int warmup = repeat ? spec.warmup() : 0;
+        int runs = repeat ? spec.warmup() + spec.repetitions() : 1;
+        Histogram micros = new Histogram(3);
+        Histogram discarded = new Histogram(3);
+
+        for (int run = 0; run < runs; run++) {
+            Histogram previous = LatencyRecorder.capture(run < warmup ? discarded : micros);
+            try {
+                if (run == 0) {
+                    invocation.proceed();
+                } else {
+                    ReflectionSupport.invokeMethod(invocationContext.getExecutable(),
+                            invocationContext.getTarget().orElse(null), invocationContext.getArguments().toArray());
+                }
+            } finally {
+                LatencyRecorder.capture(previous);
+            }
+        }
+
+        assertTrue(micros.getTotalCount() > 0, "@LatencyBudget em teste sem requisições medidas");
+        double budgetMs = spec.millis() * FACTOR;
+        double observedMs = micros.getValueAtPercentile(spec.p()) / 1000.0;
+        boolean enforced = micros.getTotalCount() >= spec.minSamples();
+        attachToAllure(spec, budgetMs, observedMs, micros, enforced);
+        if (enforced) {
+            assertTrue(observedMs <= budgetMs, String.format("p%s = %.2f ms estourou o orçamento de %.0f ms (%d requisições)",
+                    format(spec.p()), observedMs, budgetMs, micros.getTotalCount()));
+        }
+    }
+
+    private static Optional<LatencyBudget> findBudget(ExtensionContext context) {
+        Optional<LatencyBudget> onMethod = AnnotationSupport.findAnnotation(context.getTestMethod(), LatencyBudget.class);
+        return onMethod.isPresent()
+                ? onMethod
+                : AnnotationSupport.findAnnotation(context.getTestClass(), LatencyBudget.class);
+    }
+
+    private static void attachToAllure(LatencyBudget spec, double budgetMs, double observedMs, Histogram micros,
+                                       boolean enforced) {
+        ObjectNode json = MAPPER.createObjectNode();
+        json.put("percentile", spec.p());
+        json.put("budgetMs", budgetMs);
+        json.put("observedMs", observedMs);
+        json.put("withinBudget", observedMs <= budgetMs);
+        json.put("requests", micros.getTotalCount());
+        json.put("minSamples", spec.minSamples());
+        json.put("enforced", enforced);
+        json.put("p50Ms", micros.getValueAtPercentile(50) / 1000.0);
+        json.put("maxMs", micros.getMaxValue() / 1000.0);
+        Allure.addAttachment("Orçamento de latência (p" + format(spec.p()) + " ≤ " + Math.round(budgetMs) + " ms)",
+                "application/json", json.toPrettyString(), ".json");
+    }
+
+    private static String format(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+}
@@ -0,0 +1,30 @@
+package com.carrefour.extensions;
+
+/**
+ * Identidades disponíveis no pool de tokens.
+ * Cada principal corresponde a uma conta pré-cadastrada na Serverest.
+ */
+public enum Principal {
+
+    /** Conta administradora padrão da Serverest. */
+    ADMIN("fulano@qa.com", "teste"),
+
+    /** Conta sem privilégios de administrador. */
+    NON_ADMIN("beltrano@qa.com.br", "teste");
+
+    private final String email;
+    private final String password;
+
+    Principal(String email, String password) {
+        this.email = email;
+        this.password = password;
+    }
+
+    public String email() {
+        return email;
+    }
+
+    public String password() {
+        return password;
+    }
+}
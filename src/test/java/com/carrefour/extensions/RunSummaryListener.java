@@ -0,0 +1,72 @@
+package com.carrefour.extensions;
+
+import com.carrefour.utils.Cassette;
+import com.carrefour.utils.HttpClientPool;
+import com.carrefour.utils.LatencyRecorder;
+import com.carrefour.utils.Log;
+import com.carrefour.utils.RateLimiter;
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.model.Label;
+import io.qameta.allure.model.Status;
+import io.qameta.allure.model.TestResult;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestPlan;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Ao final da execução da suíte imprime o resumo do pool de conexões HTTP e do
+ * limitador de taxa e grava o relatório de latência por endpoint
+ * ({@code target/latency-report-forkN.json}, um por JVM), que também vai para o
+ * Allure como anexo de um resultado à parte. Na reprodução de cassete as latências
+ * não são da API e o relatório não é gravado.
+ * Registrado via {@code META-INF/services/org.junit.platform.launcher.TestExecutionListener}.
+ */
+public class RunSummaryListener implements TestExecutionListener {
+
+    private static final Log LOG = Log.get("HTTP");
+
+    @Override
+    public void testPlanExecutionFinished(TestPlan testPlan) {
+        if (HttpClientPool.connectionsLeased() > 0) {
+            LOG.info("{}", HttpClientPool.summary());
+            LOG.info("Limitador: {}", RateLimiter.summary());
+        }
+        LatencyRecorder latency = LatencyRecorder.shared();
+        if (!latency.isEmpty() && !Cassette.isReplay()) {
+            byte[] report = latency.writeReport(LatencyRecorder.REPORT_FILE);
+            LOG.info("Latência por endpoint gravada em {}", LatencyRecorder.REPORT_FILE);
+            attachToAllure("Latência por endpoint", "latency-report", report);
+        }
+        Log.flush();
+    }
+
+    /**
+     * Fora de um teste não há onde pendurar o anexo, então é criado um resultado
+     * sintético (suíte "Métricas da execução") só para carregá-lo.
+     */
+    private static void attachToAllure(String name, String fileName, byte[] json) {
+        try {
+            AllureLifecycle lifecycle = Allure.getLifecycle();
+            String uuid = UUID.randomUUID().toString();
+            long now = System.currentTimeMillis();
+            lifecycle.scheduleTestCase(new TestResult()
+                    .setUuid(uuid)
+                    .setHistoryId(fileName)
+                    .setName(name)
+                    .setFullName("run-summary." + fileName)
+                    .setLabels(List.of(new Label().setName("suite").setValue("Métricas da execução")))
+                    .setStatus(Status.PASSED)
+                    .setStart(now)
+                    .setStop(now));
+            lifecycle.startTestCase(uuid);
+            lifecycle.addAttachment(fileName, "application/json", ".json", json);
+            lifecycle.stopTestCase(uuid);
+            lifecycle.writeTestCase(uuid);
+        } catch (RuntimeException e) {
+            LOG.warn("Não foi possível anexar {} ao Allure: {}", fileName, e.getMessage());
+        }
+    }
+}
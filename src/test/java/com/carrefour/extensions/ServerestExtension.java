@@ -0,0 +1,80 @@
+package com.carrefour.extensions;
+
+import com.carrefour.utils.ApiConfig;
+import com.carrefour.utils.Cassette;
+import com.carrefour.utils.Log;
+import com.carrefour.utils.ResourceLedger;
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Abre o {@link ResourceLedger} na primeira classe da JVM: remove os usuários pendentes
+ * de uma execução interrompida antes do primeiro teste. O stand-in sobe sob demanda
+ * ({@link ApiConfig#baseUri()}); a limpeza final e o encerramento do stand-in ficam com
+ * o {@link SuiteSessionListener}.
+ *
+ * Com cassete ligado ({@link Cassette}) marca cada classe e cada teste como escopo das
+ * requisições feitas na thread, para que a reprodução devolva a resposta gravada
+ * pelo mesmo teste.
+ *
+ * Deve vir antes das extensões que chamam a API (ex.: {@link TokenPoolExtension}).
+ */
+public class ServerestExtension implements BeforeAllCallback, AfterAllCallback, BeforeEachCallback, AfterEachCallback {
+
+    private static final Log LOG = Log.get("LEDGER");
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(ServerestExtension.class);
+    private static final String PREVIOUS_SCOPE = "cassette.previousScope";
+    private static final AtomicBoolean LEDGER_OPENED = new AtomicBoolean();
+
+    @Override
+    public void beforeAll(ExtensionContext context) {
+        enterScope(context);
+        if (LEDGER_OPENED.compareAndSet(false, true)) {
+            ResourceLedger ledger = ResourceLedger.shared();
+            if (ledger.recovered() > 0) {
+                LOG.info("{} usuários pendentes de execução anterior em {}", ledger.recovered(), ledger.file());
+                LOG.info("Limpeza inicial: {}", ledger.deletePending());
+            }
+        }
+    }
+
+    @Override
+    public void afterAll(ExtensionContext context) {
+        restoreScope(context);
+    }
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        enterScope(context);
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        restoreScope(context);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════════
+    // ESCOPO DO CASSETE ("Classe" no @BeforeAll, "Classe#metodo" nos testes)
+    // ═══════════════════════════════════════════════════════════════════════════
+    private static void enterScope(ExtensionContext context) {
+        if (Cassette.MODE == Cassette.Mode.OFF) {
+            return;
+        }
+        String scope = context.getRequiredTestClass().getSimpleName()
+                + context.getTestMethod().map(method -> "#" + method.getName()).orElse("");
+        context.getStore(NAMESPACE).put(PREVIOUS_SCOPE, Cassette.enterScope(scope));
+    }
+
+    private static void restoreScope(ExtensionContext context) {
+        String previous = context.getStore(NAMESPACE).remove(PREVIOUS_SCOPE, String.class);
+        if (previous != null) {
+            Cassette.restoreScope(previous);
+        }
+    }
+}
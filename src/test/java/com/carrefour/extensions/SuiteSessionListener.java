@@ -0,0 +1,61 @@
+package com.carrefour.extensions;
+
+import com.carrefour.server.ServerestStandIn;
+import com.carrefour.utils.BulkDeleter;
+import com.carrefour.utils.Cassette;
+import com.carrefour.utils.FlightEvents;
+import com.carrefour.utils.Log;
+import com.carrefour.utils.Metrics;
+import com.carrefour.utils.ResourceLedger;
+import org.junit.platform.launcher.LauncherSession;
+import org.junit.platform.launcher.LauncherSessionListener;
+
+/**
+ * Encerra o que vive pela JVM inteira: apaga os usuários pendentes no
+ * {@link ResourceLedger}, grava o cassete (modo {@code record}) e derruba o stand-in.
+ * Com {@code -Djfr.record=true} também abre, no início, e grava, no fim, a gravação JFR
+ * da sessão ({@link FlightEvents}). As {@link Metrics} vão para o arquivo no fim (e para a
+ * porta {@code metrics.port}, se definida, durante a sessão).
+ *
+ * Fica no fim da sessão do launcher, e não no contexto raiz do JUnit, porque com
+ * {@code forkCount > 1} o surefire executa cada classe num plano próprio dentro do
+ * mesmo fork: o contexto raiz fecharia entre as classes, enquanto os caches estáticos
+ * (tokens, fixtures) continuam apontando para o stand-in e os usuários da sessão.
+ * Registrado via {@code META-INF/services/org.junit.platform.launcher.LauncherSessionListener}.
+ */
+public class SuiteSessionListener implements LauncherSessionListener {
+
+    private static final Log LOG = Log.get("LEDGER");
+    private static final Log METRICS_LOG = Log.get("METRICS");
+
+    @Override
+    public void launcherSessionOpened(LauncherSession session) {
+        if (FlightEvents.RECORD) {
+            FlightEvents.startRecording();
+        }
+        Metrics.shared().serveIfConfigured();
+    }
+
+    @Override
+    public void launcherSessionClosed(LauncherSession session) {
+        try {
+            ResourceLedger ledger = ResourceLedger.current();
+            if (ledger != null && !ledger.pending().isEmpty()) {
+                BulkDeleter.Summary summary = ledger.deletePending();
+                LOG.info("Limpeza final: {}", summary);
+            }
+            if (Cassette.MODE == Cassette.Mode.RECORD) {
+                Cassette cassette = Cassette.shared();
+                LOG.info("{} respostas gravadas em {}", cassette.save(), cassette.file());
+            }
+        } finally {
+            ServerestStandIn.closeShared();
+            METRICS_LOG.info("Métricas gravadas em {}", Metrics.shared().writeTo(Metrics.defaultFile()));
+            Metrics.shared().stopServer();
+            if (FlightEvents.RECORD) {
+                LOG.info("Gravação JFR: {}", FlightEvents.stopRecording());
+            }
+            Log.flush();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.carrefour.extensions;
+
+import com.carrefour.utils.JwtProvider;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Pool de tokens pré-autenticados, um por {@link Principal}.
+ *
+ * Cada principal usa o seu {@link JwtProvider}, que mantém o token em cache e o
+ * renova em background; o pool só dispara os logins de todos em paralelo no início,
+ * em threads próprias: o login bloqueia em I/O e não deve ocupar o common pool.
+ */
+public final class TokenPool {
+
+    private static final Map<Principal, JwtProvider> PROVIDERS = new EnumMap<>(Principal.class);
+    private static final AtomicReference<CompletableFuture<Void>> WARM_UP = new AtomicReference<>();
+    private static final ExecutorService LOGINS = Executors.newFixedThreadPool(Principal.values().length, r -> {
+        Thread thread = new Thread(r, "token-pool-login");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        for (Principal principal : Principal.values()) {
+            PROVIDERS.put(principal, JwtProvider.forCredentials(principal.email(), principal.password()));
+        }
+    }
+
+    private TokenPool() {
+        // utilitário – não pode ser instanciado
+    }
+
+    /**
+     * Faz o login de todos os principais concorrentemente. Só a primeira chamada
+     * dispara os logins; as demais recebem o mesmo future.
+     */
+    public static CompletableFuture<Void> warmUp() {
+        CompletableFuture<Void> existing = WARM_UP.get();
+        if (existing != null) {
+            return existing;
+        }
+        CompletableFuture<?>[] logins = PROVIDERS.values().stream()
+                .map(provider -> CompletableFuture.supplyAsync(provider::token, LOGINS))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture<Void> all = CompletableFuture.allOf(logins);
+        return WARM_UP.compareAndSet(null, all) ? all : WARM_UP.get();
+    }
+
+    /** Token atual do principal (cache sem lock), ou null se o login falhou. */
+    public static String token(Principal principal) {
+        return PROVIDERS.get(principal).token();
+    }
+}
@@ -0,0 +1,35 @@
+package com.carrefour.extensions;
+
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolver;
+
+/**
+ * Extensão JUnit 5 que injeta tokens do {@link TokenPool} em parâmetros
+ * anotados com {@link AuthToken}, tanto em métodos de teste quanto em
+ * {@code @BeforeAll}/{@code @BeforeEach}.
+ *
+ * Na primeira classe da suíte os logins de todos os principais são feitos em paralelo.
+ */
+public class TokenPoolExtension implements BeforeAllCallback, ParameterResolver {
+
+    @Override
+    public void beforeAll(ExtensionContext context) {
+        TokenPool.warmUp().join();
+    }
+
+    @Override
+    public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return parameterContext.isAnnotated(AuthToken.class)
+                && parameterContext.getParameter().getType() == String.class;
+    }
+
+    @Override
+    public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        Principal principal = parameterContext.findAnnotation(AuthToken.class)
+                .map(AuthToken::value)
+                .orElse(Principal.ADMIN);
+        return TokenPool.token(principal);
+    }
+}
@@ -0,0 +1,41 @@
+package com.carrefour.extensions;
+
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolver;
+
+/**
+ * Extensão JUnit 5 que injeta usuários do {@link UserFixturePool} em parâmetros
+ * {@link FixtureUser} anotados com {@link Fixture}.
+ *
+ * O empréstimo fica no store do contexto que pediu o parâmetro e é devolvido quando
+ * ele termina: ao fim do método de teste, ou da classe se pedido num {@code @BeforeAll}.
+ * Deve vir depois do {@link ServerestExtension}.
+ */
+public class UserFixtureExtension implements BeforeAllCallback, ParameterResolver {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(UserFixtureExtension.class);
+
+    @Override
+    public void beforeAll(ExtensionContext context) {
+        UserFixturePool.warmUp().join();
+    }
+
+    @Override
+    public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return parameterContext.isAnnotated(Fixture.class)
+                && parameterContext.getParameter().getType() == FixtureUser.class;
+    }
+
+    @Override
+    public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        boolean exclusive = parameterContext.findAnnotation(Fixture.class)
+                .map(Fixture::exclusive)
+                .orElse(false);
+        UserFixturePool.Lease lease = UserFixturePool.lease(exclusive);
+        extensionContext.getStore(NAMESPACE).put(parameterContext.getDeclaringExecutable().getName()
+                + "#" + parameterContext.getIndex(), lease);
+        return lease.user();
+    }
+}
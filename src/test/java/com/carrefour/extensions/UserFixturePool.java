@@ -0,0 +1,203 @@
+package com.carrefour.extensions;
+
+import com.carrefour.utils.ApiConfig;
+import com.carrefour.utils.Metrics;
+import com.carrefour.utils.TestIdentity;
+import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+/**
+ * Pool de usuários pré-cadastrados, compartilhado pela suíte inteira.
+ *
+ * Os {@code fixtures.size} usuários (padrão 1) são criados em paralelo uma única vez,
+ * em threads próprias (o POST bloqueia e não deve ocupar o common pool); a limpeza
+ * fica com o {@code ResourceLedger}. Cada usuário tem um semáforo: um empréstimo de
+ * leitura ocupa uma permissão, um exclusivo ocupa todas. Leituras dividem o mesmo
+ * usuário, então um basta; mais usuários só encurtam a espera atrás de um exclusivo.
+ *
+ * Configuração via system properties:
+ * <ul>
+ *   <li>{@code fixtures.size} – usuários no pool (padrão 1)</li>
+ * </ul>
+ */
+public final class UserFixturePool {
+
+    private static final int SIZE = Math.max(1, Integer.getInteger("fixtures.size", 1));
+    private static final int ALL_PERMITS = 1024;
+    private static final ExecutorService CREATORS = Executors.newFixedThreadPool(SIZE, r -> {
+        Thread thread = new Thread(r, "fixture-create");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final AtomicReference<CompletableFuture<List<Slot>>> WARM_UP = new AtomicReference<>();
+    private static final AtomicInteger NEXT = new AtomicInteger();
+
+    private UserFixturePool() {
+        // utilitário – não pode ser instanciado
+    }
+
+    /**
+     * Cadastra os usuários do pool concorrentemente. Só a primeira chamada dispara
+     * os POSTs; as demais recebem o mesmo future.
+     */
+    public static CompletableFuture<Void> warmUp() {
+        return slots().thenAccept(slots -> { });
+    }
+
+    private static CompletableFuture<List<Slot>> slots() {
+        CompletableFuture<List<Slot>> existing = WARM_UP.get();
+        if (existing != null) {
+            return existing;
+        }
+        CompletableFuture<List<Slot>> mine = new CompletableFuture<>();
+        if (!WARM_UP.compareAndSet(null, mine)) {
+            return WARM_UP.get();
+        }
+        List<CompletableFuture<Slot>> creations = IntStream.range(0, SIZE)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> new Slot(create(i)), CREATORS))
+                .toList();
+        CompletableFuture.allOf(creations.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> creations.stream().map(CompletableFuture::join).toList())
+                .whenComplete((slots, error) -> {
+                    if (error != null) {
+                        mine.completeExceptionally(error);
+                    } else {
+                        mine.complete(slots);
+                    }
+                });
+        return mine;
+    }
+
+    /**
+     * Empresta um usuário. Leituras são distribuídas em rodízio e só esperam se todos
+     * estiverem emprestados com exclusividade; o exclusivo espera os leitores saírem.
+     *
+     * Nunca espera por um usuário que a própria thread já tem emprestado: isso travaria
+     * o teste para sempre (ex.: um exclusivo e uma leitura no mesmo método com
+     * {@code fixtures.size=1}). Sem outro usuário livre, falha na hora.
+     */
+    public static Lease lease(boolean exclusive) {
+        List<Slot> slots = slots().join();
+        int permits = exclusive ? ALL_PERMITS : 1;
+        int start = Math.floorMod(NEXT.getAndIncrement(), slots.size());
+        for (int i = 0; i < slots.size(); i++) {
+            Slot slot = slots.get((start + i) % slots.size());
+            if (slot.permits.tryAcquire(permits)) {
+                return new Lease(slot, permits);
+            }
+        }
+        Thread current = Thread.currentThread();
+        for (int i = 0; i < slots.size(); i++) {
+            Slot slot = slots.get((start + i) % slots.size());
+            if (!slot.heldBy(current)) {
+                slot.permits.acquireUninterruptibly(permits);
+                return new Lease(slot, permits);
+            }
+        }
+        throw new IllegalStateException("Nenhum usuário do pool livre para mais um empréstimo" + (exclusive ? " exclusivo" : "")
+                + ": todos já estão com este teste (fixtures.size=" + SIZE + ")");
+    }
+
+    private static FixtureUser create(int index) {
+        String nome = TestIdentity.name("Fixture " + index);
+        String email = TestIdentity.email("fixture");
+        String password = TestIdentity.password();
+        String json = """
+                {
+                  "nome": "%s",
+                  "email": "%s",
+                  "password": "%s",
+                  "administrador": "false"
+                }
+                """.formatted(nome, email, password);
+
+        long start = System.nanoTime();
+        Response resp = RestAssured
+                .given(ApiConfig.requestSpec())
+                .contentType(ContentType.JSON)
+                .body(json)
+                .when()
+                .post("/usuarios");
+        boolean created = resp.getStatusCode() == 201;
+        Metrics.shared().counter("carrefour_fixtures_created_total", "Usuários de fixture cadastrados",
+                "result", created ? "ok" : "failed").inc();
+        Metrics.shared().histogram("carrefour_fixture_create_duration_seconds", "Duração do cadastro de uma fixture",
+                Metrics.SECONDS_BUCKETS).observeNanos(System.nanoTime() - start);
+        if (!created) {
+            throw new IllegalStateException("Falha ao cadastrar fixture " + email
+                    + " (status: " + resp.getStatusCode() + "): " + resp.asString());
+        }
+        return new FixtureUser(resp.jsonPath().getString("_id"), nome, email, password);
+    }
+
+    /** Usuário do pool e o semáforo que controla os empréstimos. */
+    private static final class Slot {
+
+        private final FixtureUser user;
+        private final Semaphore permits = new Semaphore(ALL_PERMITS, true);
+        /** Empréstimos em aberto, para não esperar por um usuário que a própria thread segura. */
+        private final Set<Lease> open = ConcurrentHashMap.newKeySet();
+
+        private Slot(FixtureUser user) {
+            this.user = user;
+        }
+
+        boolean heldBy(Thread thread) {
+            for (Lease lease : open) {
+                if (lease.owner == thread) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Empréstimo de um usuário do pool. Fechado pelo JUnit junto com o contexto em que
+     * foi resolvido (método ou classe).
+     */
+    public static final class Lease implements ExtensionContext.Store.CloseableResource, AutoCloseable {
+
+        private final Slot slot;
+        private final int permits;
+        private final Thread owner = Thread.currentThread();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Lease(Slot slot, int permits) {
+            this.slot = slot;
+            this.permits = permits;
+            slot.open.add(this);
+        }
+
+        public FixtureUser user() {
+            return slot.user;
+        }
+
+        public boolean exclusive() {
+            return permits == ALL_PERMITS;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                slot.open.remove(this);
+                slot.permits.release(permits);
+            }
+        }
+    }
+}
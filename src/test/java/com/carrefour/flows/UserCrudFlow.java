@@ -0,0 +1,80 @@
+package com.carrefour.flows;
+
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * Passos do fluxo CRUD de usuários (create → get → list → update → delete).
+ *
+ * Usado pelos testes positivos e pelo gerador de carga, para que a carga
+ * exercite exatamente as mesmas requisições que a suíte valida.
+ */
+public class UserCrudFlow {
+
+    private final RequestSpecification spec;
+    private final String token;
+
+    public UserCrudFlow(RequestSpecification spec, String token) {
+        this.spec = spec;
+        this.token = token;
+    }
+
+    /** Corpo do POST de {@link #create(String)}; também usado pelo gerador de carga. */
+    public static String createJson(String email) {
+        return """
+                {
+                  "nome": "Usuário Positivo",
+                  "email": "%s",
+                  "password": "Abc12345",
+                  "administrador": "false"
+                }
+                """.formatted(email);
+    }
+
+    /** Corpo do PUT de {@link #update(String, String)}. */
+    public static String updateJson(String email) {
+        return """
+                {
+                  "nome": "Usuário Atualizado",
+                  "email": "%s",
+                  "password": "NovaSenha123",
+                  "administrador": "false"
+                }
+                """.formatted(email);
+    }
+
+    public Response create(String email) {
+        return given(spec)
+                .contentType(ContentType.JSON)
+                .header("Authorization", "Bearer " + token)
+                .body(createJson(email))
+                .post("/usuarios");
+    }
+
+    public Response get(String id) {
+        return given(spec)
+                .get("/usuarios/" + id);
+    }
+
+    public Response list() {
+        return given(spec)
+                .get("/usuarios");
+    }
+
+    public Response update(String id, String email) {
+        return given(spec)
+                .contentType(ContentType.JSON)
+                .header("Authorization", "Bearer " + token)
+                .body(updateJson(email))
+                .put("/usuarios/" + id);
+    }
+
+    public Response delete(String id) {
+        return given(spec)
+                .header("Authorization", "Bearer " + token)
+                .delete("/usuarios/" + id);
+    }
+}
@@ -0,0 +1,163 @@
+package com.carrefour.load;
+
+import com.carrefour.extensions.Principal;
+import com.carrefour.extensions.TokenPool;
+import com.carrefour.flows.UserCrudFlow;
+import com.carrefour.server.ServerestStandIn;
+import com.carrefour.utils.ApiConfig;
+import com.carrefour.utils.Log;
+import com.carrefour.utils.Metrics;
+import com.carrefour.utils.TestIdentity;
+import com.carrefour.utils.UsersApiClient;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Gerador de carga em malha aberta (open loop) sobre o fluxo CRUD de usuários.
+ *
+ * Os fluxos são disparados em uma taxa fixa, independentemente de quanto as
+ * respostas demoram. A latência do primeiro passo (e do fluxo inteiro) é medida
+ * a partir do instante em que o fluxo <i>deveria</i> ter começado, então a espera
+ * na fila também conta — sem "coordinated omission".
+ *
+ * Cada fluxo é uma cadeia de {@link CompletableFuture}s sobre o {@link UsersApiClient}
+ * (mesmas requisições do {@link UserCrudFlow}): nenhuma thread fica parada esperando
+ * resposta, então milhares de fluxos cabem em voo com as poucas threads do cliente.
+ *
+ * Configuração via system properties:
+ * <ul>
+ *   <li>{@code load.rate} – fluxos iniciados por segundo (padrão 20)</li>
+ *   <li>{@code load.duration} – duração em segundos (padrão 30)</li>
+ *   <li>{@code load.concurrency} – fluxos em voo ao mesmo tempo; acima disso o disparo
+ *       espera, e a espera conta na latência (padrão 1024)</li>
+ *   <li>{@code api.target} / {@code api.baseUri} – alvo, ver {@link ApiConfig}</li>
+ *   <li>{@code metrics.port} – expõe {@code /metrics} durante a carga, ver {@link Metrics}</li>
+ * </ul>
+ *
+ * Execução: {@code mvn -Pload test -Dload.rate=50 -Dload.duration=20}
+ */
+public class LoadGenerator {
+
+    private static final Log LOG = Log.get("LOAD");
+
+    static final String CREATE = "POST /usuarios";
+    static final String GET = "GET /usuarios/{id}";
+    static final String LIST = "GET /usuarios";
+    static final String UPDATE = "PUT /usuarios/{id}";
+    static final String DELETE = "DELETE /usuarios/{id}";
+    static final String FLOW = "FLUXO CRUD";
+
+    private final double flowsPerSecond;
+    private final Duration duration;
+    private final int concurrency;
+
+    public LoadGenerator(double flowsPerSecond, Duration duration, int concurrency) {
+        this.flowsPerSecond = flowsPerSecond;
+        this.duration = duration;
+        this.concurrency = concurrency;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        double rate = Double.parseDouble(System.getProperty("load.rate", "20"));
+        Duration duration = Duration.ofSeconds(Long.getLong("load.duration", 30L));
+        int concurrency = Integer.getInteger("load.concurrency", 1024);
+
+        LOG.info("Alvo: {} | {} fluxos/s | {} s | até {} fluxos em voo", ApiConfig.baseUri(), rate,
+                duration.getSeconds(), concurrency);
+        Metrics.shared().serveIfConfigured();
+        try {
+            LoadReport report = new LoadGenerator(rate, duration, concurrency).run();
+            Log.flush();
+            report.print(System.out);
+        } finally {
+            ServerestStandIn.closeShared();
+            LOG.info("Métricas gravadas em {}", Metrics.shared().writeTo(Metrics.defaultFile()));
+            Metrics.shared().stopServer();
+        }
+    }
+
+    public LoadReport run() throws InterruptedException {
+        UsersApiClient client = UsersApiClient.shared();
+        String token = TokenPool.token(Principal.ADMIN);
+        LoadReport report = new LoadReport();
+        Semaphore inFlight = new Semaphore(concurrency);
+
+        long periodNanos = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1) / flowsPerSecond));
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        for (long i = 0, intended = start; intended - end < 0; intended = start + (++i) * periodNanos) {
+            parkUntil(intended);
+            inFlight.acquire();
+            runFlow(client, token, intended, report).whenComplete((ok, error) -> inFlight.release());
+        }
+
+        if (!inFlight.tryAcquire(concurrency, 5, TimeUnit.MINUTES)) {
+            LOG.warn("Fluxos ainda em voo após 5 min: {}", concurrency - inFlight.availablePermits());
+        }
+        report.finish(System.nanoTime() - start);
+        return report;
+    }
+
+    /** Encadeia um fluxo completo; o primeiro passo conta desde o início planejado. */
+    private CompletableFuture<Boolean> runFlow(UsersApiClient client, String token, long intendedStart,
+                                               LoadReport report) {
+        AtomicReference<String> pendingId = new AtomicReference<>();
+        return client.create(UserCrudFlow.createJson(TestIdentity.email("load")), token)
+                .thenCompose(created -> {
+                    report.record(CREATE, intendedStart, created.status() == 201);
+                    if (created.status() != 201) {
+                        return CompletableFuture.completedFuture(false);
+                    }
+                    String id = created.id();
+                    pendingId.set(id);
+                    return step(GET, client.get(id), report)
+                            .thenCombine(step(LIST, client.list(), report), (got, listed) -> got && listed)
+                            .thenCompose(ok -> step(UPDATE,
+                                    client.update(id, UserCrudFlow.updateJson(TestIdentity.email("load-upd")), token),
+                                    report).thenApply(updated -> ok && updated))
+                            .thenCompose(ok -> step(DELETE, client.delete(id, token), report)
+                                    .thenApply(deleted -> {
+                                        if (deleted) {
+                                            pendingId.set(null);
+                                        }
+                                        return ok && deleted;
+                                    }));
+                })
+                .exceptionally(e -> false)
+                .thenCompose(ok -> {
+                    report.record(FLOW, intendedStart, ok);
+                    String leftover = pendingId.get();
+                    if (leftover == null) {
+                        return CompletableFuture.completedFuture(ok);
+                    }
+                    // melhor esforço: não deixa lixo, mas não mascara o erro original
+                    return client.delete(leftover, token).handle((r, e) -> ok);
+                });
+    }
+
+    /**
+     * Registra um passo: a latência conta a partir de agora, quando a requisição é
+     * disparada; GET e LIST saem juntos, multiplexados na mesma conexão em HTTP/2.
+     */
+    private static CompletableFuture<Boolean> step(String endpoint, CompletableFuture<UsersApiClient.ApiResponse> call,
+                                                   LoadReport report) {
+        long t = System.nanoTime();
+        return call.handle((resp, error) -> {
+            boolean ok = error == null && resp.status() == 200;
+            report.record(endpoint, t, ok);
+            return ok;
+        });
+    }
+
+    private static void parkUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.carrefour.load;
+
+import com.carrefour.utils.Metrics;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latências (HdrHistogram, em microssegundos) e erros por endpoint de uma execução de carga.
+ * Gravação sem locks: várias threads podem registrar ao mesmo tempo. Cada registro também
+ * entra nas {@link Metrics} ({@code carrefour_load_*}).
+ */
+public class LoadReport {
+
+    private final ConcurrentMap<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+    private volatile long elapsedNanos;
+
+    /** Registra uma chamada que começou (ou deveria ter começado) em {@code startNanos}. */
+    public void record(String endpoint, long startNanos, boolean success) {
+        long elapsedNanos = System.nanoTime() - startNanos;
+        long micros = TimeUnit.NANOSECONDS.toMicros(elapsedNanos);
+        Metrics.shared().counter("carrefour_load_steps_total", "Passos executados pelo gerador de carga",
+                "step", endpoint, "result", success ? "ok" : "failed").inc();
+        Metrics.shared().histogram("carrefour_load_step_duration_seconds",
+                "Duração dos passos de carga, desde o início planejado", Metrics.SECONDS_BUCKETS, "step", endpoint)
+                .observeNanos(elapsedNanos);
+        EndpointStats stats = endpoints.computeIfAbsent(endpoint, k -> new EndpointStats());
+        stats.latencyMicros.recordValue(Math.max(0L, micros));
+        if (!success) {
+            stats.errors.increment();
+        }
+    }
+
+    void finish(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long totalRequests(String endpoint) {
+        EndpointStats stats = endpoints.get(endpoint);
+        return stats == null ? 0 : stats.latencyMicros.getTotalCount();
+    }
+
+    /** Percentil de {@code endpoint}, em ms (0 se não houve chamadas). */
+    double percentileMillis(String endpoint, double percentile) {
+        EndpointStats stats = endpoints.get(endpoint);
+        return stats == null ? 0.0 : millis(stats.latencyMicros.getValueAtPercentile(percentile));
+    }
+
+    long errors(String endpoint) {
+        EndpointStats stats = endpoints.get(endpoint);
+        return stats == null ? 0 : stats.errors.sum();
+    }
+
+    double elapsedSeconds() {
+        return elapsedNanos / 1e9;
+    }
+
+    public void print(PrintStream out) {
+        double seconds = Math.max(1e-9, elapsedNanos / 1e9);
+        out.printf("%n[LOAD] Duração: %.1f s%n", seconds);
+        out.printf("%-22s %8s %9s %7s %9s %9s %9s %9s %9s%n",
+                "Endpoint", "Req", "Req/s", "Erros", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Map.Entry<String, EndpointStats> entry : new TreeMap<>(endpoints).entrySet()) {
+            Histogram h = entry.getValue().latencyMicros.copy();
+            out.printf("%-22s %8d %9.1f %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey(),
+                    h.getTotalCount(),
+                    h.getTotalCount() / seconds,
+                    entry.getValue().errors.sum(),
+                    millis(h.getValueAtPercentile(50)),
+                    millis(h.getValueAtPercentile(90)),
+                    millis(h.getValueAtPercentile(99)),
+                    millis(h.getValueAtPercentile(99.9)),
+                    millis(h.getMaxValue()));
+        }
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static final class EndpointStats {
+        private final ConcurrentHistogram latencyMicros = new ConcurrentHistogram(3);
+        private final LongAdder errors = new LongAdder();
+    }
+}
@@ -0,0 +1,426 @@
+package com.carrefour.server;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Substituto em processo da Serverest.dev para rodar a suíte offline.
+ *
+ * Implementa {@code /login} e o CRUD de {@code /usuarios} com os mesmos status e
+ * mensagens que os testes verificam, sobre um {@link HttpServer} do JDK e um
+ * mapa em memória. Os IDs seguem o formato da Serverest (16 caracteres alfanuméricos)
+ * e o login devolve um JWT HS256 com {@code exp} de 600 s.
+ */
+public final class ServerestStandIn implements AutoCloseable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String ID_ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+    private static final Pattern EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+    private static final int MAX_LENGTH = 100;
+    private static final int MIN_PASSWORD_LENGTH = 5;
+    private static final long TOKEN_TTL_SECONDS = 600;
+    private static final byte[] JWT_SECRET = "serverest-stand-in".getBytes(StandardCharsets.UTF_8);
+
+    private static volatile ServerestStandIn shared;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ConcurrentMap<String, ObjectNode> usersById = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, String> idsByEmail = new ConcurrentHashMap<>();
+
+    private ServerestStandIn(int port) throws IOException {
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "serverest-stand-in-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        this.server.createContext("/login", this::handleLogin);
+        this.server.createContext("/usuarios", this::handleUsuarios);
+        this.server.setExecutor(executor);
+
+        seed("Fulano da Silva", "fulano@qa.com", "teste", "true");
+        seed("Beltrano da Silva", "beltrano@qa.com.br", "teste", "false");
+    }
+
+    /** Sobe uma instância nova na porta indicada ({@code 0} = porta livre). */
+    public static ServerestStandIn start(int port) {
+        try {
+            ServerestStandIn standIn = new ServerestStandIn(port);
+            standIn.server.start();
+            return standIn;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível iniciar o stand-in da Serverest", e);
+        }
+    }
+
+    /** Instância única da JVM, iniciada sob demanda em uma porta livre. */
+    public static ServerestStandIn shared() {
+        ServerestStandIn instance = shared;
+        if (instance == null) {
+            synchronized (ServerestStandIn.class) {
+                instance = shared;
+                if (instance == null) {
+                    instance = start(Integer.getInteger("standin.port", 0));
+                    shared = instance;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /** Encerra a instância compartilhada, se houver (o dispatcher do HttpServer não é daemon). */
+    public static void closeShared() {
+        ServerestStandIn instance = shared;
+        if (instance != null) {
+            instance.close();
+        }
+    }
+
+    public String baseUri() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+        synchronized (ServerestStandIn.class) {
+            if (shared == this) {
+                shared = null;
+            }
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════════
+    // /login
+    // ═══════════════════════════════════════════════════════════════════════════
+    private void handleLogin(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                sendMethodNotAllowed(exchange);
+                return;
+            }
+            JsonNode body = readBody(exchange);
+            if (body == null) {
+                send(exchange, 400, message("Adicione aspas em todos os valores. Para mais informações acesse a issue https://github.com/ServeRest/ServeRest/issues/225"));
+                return;
+            }
+            ObjectNode errors = MAPPER.createObjectNode();
+            String email = requiredString(body, "email", errors);
+            String password = requiredString(body, "password", errors);
+            if (!errors.isEmpty()) {
+                send(exchange, 400, errors);
+                return;
+            }
+            String id = idsByEmail.get(email);
+            ObjectNode user = id != null ? usersById.get(id) : null;
+            if (user == null || !password.equals(user.get("password").asText())) {
+                send(exchange, 401, message("Email e/ou senha inválidos"));
+                return;
+            }
+            ObjectNode response = message("Login realizado com sucesso");
+            response.put("authorization", "Bearer " + issueToken(email, password));
+            send(exchange, 200, response);
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════════
+    // /usuarios e /usuarios/{id}
+    // ═══════════════════════════════════════════════════════════════════════════
+    private void handleUsuarios(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+            String id = path.length() > "/usuarios/".length() ? path.substring("/usuarios/".length()) : null;
+
+            if (id == null) {
+                switch (method) {
+                    case "GET" -> listUsers(exchange);
+                    case "POST" -> createUser(exchange);
+                    default -> sendMethodNotAllowed(exchange);
+                }
+            } else {
+                switch (method) {
+                    case "GET" -> getUser(exchange, id);
+                    case "PUT" -> updateUser(exchange, id);
+                    case "DELETE" -> deleteUser(exchange, id);
+                    default -> sendMethodNotAllowed(exchange);
+                }
+            }
+        }
+    }
+
+    private void listUsers(HttpExchange exchange) throws IOException {
+        Map<String, String> filters = queryParams(exchange.getRequestURI().getRawQuery());
+        ArrayNode usuarios = MAPPER.createArrayNode();
+        for (ObjectNode user : usersById.values()) {
+            if (matches(user, filters)) {
+                usuarios.add(user);
+            }
+        }
+        ObjectNode response = MAPPER.createObjectNode();
+        response.put("quantidade", usuarios.size());
+        response.set("usuarios", usuarios);
+        send(exchange, 200, response);
+    }
+
+    private void createUser(HttpExchange exchange) throws IOException {
+        ObjectNode user = validatedUser(exchange);
+        if (user == null) {
+            return;
+        }
+        String id = newId();
+        if (idsByEmail.putIfAbsent(user.get("email").asText(), id) != null) {
+            send(exchange, 400, message("Este email já está sendo usado"));
+            return;
+        }
+        user.put("_id", id);
+        usersById.put(id, user);
+
+        ObjectNode response = message("Cadastro realizado com sucesso");
+        response.put("_id", id);
+        send(exchange, 201, response);
+    }
+
+    private void getUser(HttpExchange exchange, String id) throws IOException {
+        ObjectNode user = usersById.get(id);
+        if (user == null) {
+            send(exchange, 400, message("Usuário não encontrado"));
+            return;
+        }
+        send(exchange, 200, user);
+    }
+
+    private void updateUser(HttpExchange exchange, String id) throws IOException {
+        ObjectNode user = validatedUser(exchange);
+        if (user == null) {
+            return;
+        }
+        String email = user.get("email").asText();
+        String owner = idsByEmail.putIfAbsent(email, id);
+        if (owner != null && !owner.equals(id)) {
+            send(exchange, 400, message("Este email já está sendo usado"));
+            return;
+        }
+        user.put("_id", id);
+        ObjectNode previous = usersById.put(id, user);
+        if (previous == null) {
+            // Como na Serverest: PUT em ID inexistente cadastra o usuário
+            ObjectNode response = message("Cadastro realizado com sucesso");
+            response.put("_id", id);
+            send(exchange, 201, response);
+            return;
+        }
+        String previousEmail = previous.get("email").asText();
+        if (!previousEmail.equals(email)) {
+            idsByEmail.remove(previousEmail, id);
+        }
+        send(exchange, 200, message("Registro alterado com sucesso"));
+    }
+
+    private void deleteUser(HttpExchange exchange, String id) throws IOException {
+        ObjectNode removed = usersById.remove(id);
+        if (removed == null) {
+            send(exchange, 200, message("Nenhum registro excluído"));
+            return;
+        }
+        idsByEmail.remove(removed.get("email").asText(), id);
+        send(exchange, 200, message("Registro excluído com sucesso"));
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════════
+    // VALIDAÇÃO (mesmas regras que os testes esperam)
+    // ═══════════════════════════════════════════════════════════════════════════
+    /** Lê e valida o corpo; em caso de erro já responde 400 e devolve null. */
+    private ObjectNode validatedUser(HttpExchange exchange) throws IOException {
+        JsonNode body = readBody(exchange);
+        if (body == null) {
+            send(exchange, 400, message("Adicione aspas em todos os valores. Para mais informações acesse a issue https://github.com/ServeRest/ServeRest/issues/225"));
+            return null;
+        }
+        ObjectNode errors = MAPPER.createObjectNode();
+        String nome = requiredString(body, "nome", errors);
+        String email = requiredString(body, "email", errors);
+        String password = requiredString(body, "password", errors);
+        String administrador = requiredString(body, "administrador", errors);
+
+        if (nome != null && nome.length() > MAX_LENGTH) {
+            errors.put("nome", "nome deve ter no máximo " + MAX_LENGTH + " caracteres");
+        }
+        if (email != null && (email.length() > MAX_LENGTH || !EMAIL.matcher(email).matches())) {
+            errors.put("email", "email deve ser um email válido");
+        }
+        if (password != null && password.length() < MIN_PASSWORD_LENGTH) {
+            errors.put("password", "password deve ter no mínimo " + MIN_PASSWORD_LENGTH + " caracteres");
+        }
+        if (administrador != null && !"true".equals(administrador) && !"false".equals(administrador)) {
+            errors.put("administrador", "administrador deve ser 'true' ou 'false'");
+        }
+        body.fieldNames().forEachRemaining(field -> {
+            if (!"nome".equals(field) && !"email".equals(field)
+                    && !"password".equals(field) && !"administrador".equals(field)) {
+                errors.put(field, field + " não é permitido");
+            }
+        });
+        if (!errors.isEmpty()) {
+            send(exchange, 400, errors);
+            return null;
+        }
+
+        ObjectNode user = MAPPER.createObjectNode();
+        user.put("nome", nome);
+        user.put("email", email);
+        user.put("password", password);
+        user.put("administrador", administrador);
+        return user;
+    }
+
+    /** Campo obrigatório, do tipo string e não branco; registra a mensagem de erro no mapa. */
+    private static String requiredString(JsonNode body, String field, ObjectNode errors) {
+        JsonNode node = body.get(field);
+        if (node == null || node.isNull()) {
+            errors.put(field, field + " é obrigatório");
+            return null;
+        }
+        if (!node.isTextual()) {
+            errors.put(field, "administrador".equals(field)
+                    ? "administrador deve ser 'true' ou 'false'"
+                    : field + " deve ser uma string");
+            return null;
+        }
+        String value = node.asText();
+        if (value.trim().isEmpty()) {
+            errors.put(field, field + " não pode ficar em branco");
+            return null;
+        }
+        return value;
+    }
+
+    private static boolean matches(ObjectNode user, Map<String, String> filters) {
+        for (Map.Entry<String, String> filter : filters.entrySet()) {
+            JsonNode value = user.get(filter.getKey());
+            if (value == null || !value.asText().equals(filter.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════════
+    // AUXILIARES
+    // ═══════════════════════════════════════════════════════════════════════════
+    private void seed(String nome, String email, String password, String administrador) {
+        String id = newId();
+        ObjectNode user = MAPPER.createObjectNode();
+        user.put("nome", nome);
+        user.put("email", email);
+        user.put("password", password);
+        user.put("administrador", administrador);
+        user.put("_id", id);
+        usersById.put(id, user);
+        idsByEmail.put(email, id);
+    }
+
+    private static String newId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        char[] id = new char[16];
+        for (int i = 0; i < id.length; i++) {
+            id[i] = ID_ALPHABET.charAt(random.nextInt(ID_ALPHABET.length()));
+        }
+        return new String(id);
+    }
+
+    private static String issueToken(String email, String password) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        long now = System.currentTimeMillis() / 1000;
+        ObjectNode payload = MAPPER.createObjectNode();
+        payload.put("email", email);
+        payload.put("password", password);
+        payload.put("iat", now);
+        payload.put("exp", now + TOKEN_TTL_SECONDS);
+
+        String header = encoder.encodeToString("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+        String claims = encoder.encodeToString(payload.toString().getBytes(StandardCharsets.UTF_8));
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(JWT_SECRET, "HmacSHA256"));
+            byte[] signature = mac.doFinal((header + "." + claims).getBytes(StandardCharsets.UTF_8));
+            return header + "." + claims + "." + encoder.encodeToString(signature);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 indisponível", e);
+        }
+    }
+
+    private static JsonNode readBody(HttpExchange exchange) {
+        try (InputStream in = exchange.getRequestBody()) {
+            // Lê até o fim: corpo não consumido faz o HttpServer fechar a conexão keep-alive
+            JsonNode body = MAPPER.readTree(in.readAllBytes());
+            return body != null && body.isObject() ? body : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static Map<String, String> queryParams(String rawQuery) {
+        Map<String, String> params = new LinkedHashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private static ObjectNode message(String text) {
+        ObjectNode node = MAPPER.createObjectNode();
+        node.put("message", text);
+        return node;
+    }
+
+    private static void sendMethodNotAllowed(HttpExchange exchange) throws IOException {
+        send(exchange, 405, message("Não é possível realizar " + exchange.getRequestMethod()
+                + " em " + exchange.getRequestURI().getPath()
+                + ". Acesse https://serverest.dev para ver as rotas disponíveis e como utilizá-las."));
+    }
+
+    private static void send(HttpExchange exchange, int status, JsonNode body) throws IOException {
+        byte[] bytes = MAPPER.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.carrefour.tests;
+
+import com.carrefour.utils.AdaptiveRateLimiter;
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveRateLimiterTests {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private static AdaptiveRateLimiter limiter(double initialRpm) {
+        return new AdaptiveRateLimiter(initialRpm, 60, 60_000, 1, 600, 0.5, 3, Duration.ofMillis(100));
+    }
+
+    @Test
+    @DisplayName("✅ Respostas saudáveis aumentam a taxa; 429 a reduz pela metade")
+    public void healthyResponsesIncrease_andThrottlingHalves() {
+        AdaptiveRateLimiter limiter = limiter(600);
+        for (int i = 0; i < 50; i++) {
+            limiter.onResponse(200, null, FAST);
+        }
+        double raised = limiter.currentRpm();
+        assertTrue(raised > 600, "Taxa deveria subir com respostas saudáveis. Obtido: " + raised);
+
+        limiter.onResponse(429, null, FAST);
+        assertEquals(raised / 2, limiter.currentRpm(), raised * 0.01);
+
+        limiter.onResponse(503, null, FAST);
+        assertEquals(raised / 2, limiter.currentRpm(), raised * 0.01,
+                "Sinais dentro do intervalo de espera contam como uma única redução");
+        assertEquals(1, limiter.decreases());
+    }
+
+    @Test
+    @DisplayName("✅ Pico de latência reduz a taxa depois da média estabilizar")
+    public void latencySpike_reducesRate() {
+        AdaptiveRateLimiter limiter = limiter(6000);
+        for (int i = 0; i < 30; i++) {
+            limiter.onResponse(200, null, FAST);
+        }
+        double before = limiter.currentRpm();
+
+        limiter.onResponse(200, null, TimeUnit.MILLISECONDS.toNanos(500));
+
+        assertEquals(before / 2, limiter.currentRpm(), before * 0.01);
+    }
+
+    @Test
+    @DisplayName("✅ Retry-After segura as próximas permissões")
+    public void retryAfter_pausesPermits() {
+        AdaptiveRateLimiter limiter = limiter(60_000);
+        assertTrue(limiter.tryAcquire(Duration.ZERO));
+
+        limiter.onResponse(429, new Headers(new Header("Retry-After", "1")), FAST);
+
+        assertFalse(limiter.tryAcquire(Duration.ofMillis(500)), "Nenhuma permissão antes do Retry-After");
+        assertTrue(limiter.tryAcquire(Duration.ofMillis(1500)));
+        assertEquals(1, limiter.pauses());
+    }
+
+    @Test
+    @DisplayName("✅ X-RateLimit-Remaining limita a taxa ao que resta da janela")
+    public void rateLimitHeaders_capRate() {
+        AdaptiveRateLimiter limiter = limiter(60_000);
+
+        limiter.onResponse(200, new Headers(new Header("X-RateLimit-Remaining", "120"),
+                new Header("X-RateLimit-Reset", "60")), FAST);
+        for (int i = 0; i < 10; i++) {
+            limiter.onResponse(200, null, FAST);
+        }
+
+        assertTrue(limiter.currentRpm() <= 121, "120 restantes em 60 s = 120 req/min até o reset. Obtido: "
+                + limiter.currentRpm());
+    }
+}
@@ -0,0 +1,116 @@
+package com.carrefour.tests;
+
+import com.carrefour.utils.BulkDeleter;
+import com.carrefour.utils.HttpClientPool;
+import com.carrefour.utils.UsersApiClient;
+import com.sun.net.httpserver.HttpServer;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.specification.RequestSpecification;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Exercita o {@link BulkDeleter} contra um servidor mínimo: IDs "flaky-*" falham
+ * uma vez com 503, "gone-*" sempre respondem 400 e os demais 200.
+ *
+ * Os métodos dividem os contadores do servidor, por isso rodam em sequência.
+ */
+@Execution(ExecutionMode.SAME_THREAD)
+public class BulkDeleterTests {
+
+    private static final AtomicInteger inFlight = new AtomicInteger();
+    private static final AtomicInteger maxInFlight = new AtomicInteger();
+    private static final Set<String> failedOnce = ConcurrentHashMap.newKeySet();
+
+    private static HttpServer server;
+    private static RequestSpecification spec;
+
+    @BeforeAll
+    static void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "bulk-delete-stub");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        server.createContext("/usuarios/", exchange -> {
+            String id = exchange.getRequestURI().getPath().substring("/usuarios/".length());
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(50);
+                int status = id.startsWith("gone-") ? 400
+                        : id.startsWith("flaky-") && failedOnce.add(id) ? 503
+                        : 200;
+                byte[] body = "{\"message\":\"ok\"}".getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(status, body.length);
+                exchange.getResponseBody().write(body);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+                exchange.close();
+            }
+        });
+        server.start();
+        spec = new RequestSpecBuilder()
+                .setBaseUri("http://127.0.0.1:" + server.getAddress().getPort())
+                .setConfig(HttpClientPool.config())
+                .addFilter(HttpClientPool.releaseConnectionFilter())
+                .build();
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop(0);
+    }
+
+    @BeforeEach
+    void resetCounters() {
+        maxInFlight.set(0);
+    }
+
+    @Test
+    @DisplayName("✅ Remove em paralelo, repete falhas transitórias e respeita o limite em voo")
+    public void deleteAll_retriesTransientFailures_andBoundsConcurrency() {
+        BulkDeleter deleter = new BulkDeleter(3, 3, 10);
+        List<String> ids = List.of("a-1", "a-2", "flaky-1", "flaky-2", "gone-1", "a-3");
+
+        BulkDeleter.Summary summary = deleter.deleteAll(spec, "token", ids);
+
+        assertEquals(5, summary.deleted(), "Todos menos o 'gone' devem ser removidos: " + summary);
+        assertEquals(List.of("gone-1"), summary.failedIds(), "400 não é transitório e não deve ser repetido");
+        assertTrue(maxInFlight.get() > 1, "DELETEs deveriam sair em paralelo");
+        assertTrue(maxInFlight.get() <= 3, "No máximo 3 DELETEs em voo. Obtido: " + maxInFlight.get());
+    }
+
+    @Test
+    @DisplayName("✅ Pelo cliente assíncrono: mesmas regras, sem threads dedicadas")
+    public void deleteAll_async_retriesTransientFailures_andBoundsConcurrency() {
+        BulkDeleter deleter = new BulkDeleter(3, 3, 10);
+        UsersApiClient client = UsersApiClient.standalone("http://127.0.0.1:" + server.getAddress().getPort());
+        List<String> ids = List.of("b-1", "b-2", "flaky-3", "flaky-4", "gone-2", "b-3");
+
+        BulkDeleter.Summary summary = deleter.deleteAll(client, "token", ids);
+
+        assertEquals(5, summary.deleted(), "Todos menos o 'gone' devem ser removidos: " + summary);
+        assertEquals(List.of("gone-2"), summary.failedIds(), "400 não é transitório e não deve ser repetido");
+        assertTrue(maxInFlight.get() > 1, "DELETEs deveriam sair em paralelo");
+        assertTrue(maxInFlight.get() <= 3, "No máximo 3 DELETEs em voo. Obtido: " + maxInFlight.get());
+    }
+}
@@ -0,0 +1,90 @@
+package com.carrefour.tests;
+
+import com.carrefour.utils.Cassette;
+import com.carrefour.utils.HttpClientPool;
+import com.carrefour.utils.TestIdentity;
+import com.sun.net.httpserver.HttpServer;
+import io.restassured.RestAssured;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.response.Response;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CassetteTests {
+
+    @Test
+    @DisplayName("✅ Chave ignora host, IDs e dados gerados pela execução")
+    public void key_normalizesDynamicParts() {
+        String email = TestIdentity.email("controle");
+        String body = "{ \"email\": \"" + email + "\", \"password\": \"" + TestIdentity.password() + "\" }";
+
+        assertEquals("POST /usuarios {\"email\":\"controle-{run}@qa.com\",\"password\":\"Pw-{run}\"}",
+                Cassette.key("POST", "http://127.0.0.1:40051/usuarios", body));
+        assertEquals("GET /usuarios/{id}?_id=x",
+                Cassette.key("GET", "https://serverest.dev/usuarios/0uxuPY0cbmQhpEz1?_id=x", null));
+        assertEquals(Cassette.key("PUT", "/usuarios/0uxuPY0cbmQhpEz1", "{\"nome\":\"" + TestIdentity.name("Fixture 0") + "\"}"),
+                Cassette.key("PUT", "/usuarios/0uxuPY0cbmQhpEz1", "{\"nome\":\"" + TestIdentity.name("Fixture 1") + "\"}"),
+                "O índice da fixture emprestada não deve mudar a chave");
+        assertNotEquals(Cassette.key("POST", "/usuarios", "{\"nome\":\"A\"}"),
+                Cassette.key("POST", "/usuarios", "{\"nome\":\"B\"}"), "Corpos diferentes são chaves diferentes");
+        assertNotEquals(Cassette.key("POST", "/usuarios", "{\"nome\": \"   \"}"),
+                Cassette.key("POST", "/usuarios", "{\"nome\": \"\"}"), "Espaços dentro de strings fazem parte da chave");
+    }
+
+    @Test
+    @DisplayName("✅ Reproduz as respostas gravadas, em ordem, sem servidor")
+    public void replay_servesRecordedResponsesInOrder(@TempDir Path dir) throws IOException {
+        AtomicInteger calls = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/usuarios", exchange -> {
+            byte[] body = ("{\"n\":" + calls.incrementAndGet() + "}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        Path file = dir.resolve("stub.ndjson.gz");
+        try {
+            Cassette recorder = new Cassette(Cassette.Mode.RECORD, file);
+            String baseUri = "http://127.0.0.1:" + server.getAddress().getPort();
+            for (int i = 0; i < 2; i++) {
+                get(recorder, baseUri);
+            }
+            assertEquals(2, recorder.save());
+        } finally {
+            server.stop(0);
+        }
+
+        Cassette player = new Cassette(Cassette.Mode.REPLAY, file);
+        assertEquals("{\"n\":1}", get(player, "http://serverest.replay").asString());
+        assertEquals("{\"n\":2}", get(player, "http://serverest.replay").asString());
+        Response repeated = get(player, "http://serverest.replay");
+        assertEquals("{\"n\":2}", repeated.asString(), "Esgotada a fila, a última resposta se repete");
+        assertEquals(200, repeated.getStatusCode());
+        assertEquals(2, calls.get(), "A reprodução não pode chegar ao servidor");
+    }
+
+    private static Response get(Cassette cassette, String baseUri) {
+        return RestAssured
+                .given(new RequestSpecBuilder()
+                        .setBaseUri(baseUri)
+                        .setConfig(HttpClientPool.config())
+                        .addFilter(cassette.filter())
+                        .build())
+                .when()
+                .get("/usuarios")
+                .then()
+                .extract()
+                .response();
+    }
+}
@@ -0,0 +1,130 @@
+package com.carrefour.tests;
+
+import com.carrefour.extensions.LatencyBudget;
+import com.carrefour.utils.LatencyRecorder;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.launcher.Launcher;
+import org.junit.platform.launcher.core.LauncherConfig;
+import org.junit.platform.launcher.core.LauncherFactory;
+import org.junit.platform.launcher.listeners.SummaryGeneratingListener;
+import org.junit.platform.launcher.listeners.TestExecutionSummary;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+import static org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder.request;
+
+/**
+ * O {@link com.carrefour.extensions.LatencyBudgetExtension} rodando em classes de teste
+ * de mentira, executadas por um launcher próprio. As amostras são gravadas direto no
+ * histograma que a extensão registra na thread, sem HTTP, e saem iguais com qualquer
+ * {@code api.target}: as repetições só mudam a contagem, nunca o lado do mínimo.
+ */
+public class LatencyBudgetExtensionTests {
+
+    @Test
+    @DisplayName("✅ Percentil acima do orçamento com amostras suficientes reprova")
+    public void budget_overWithEnoughSamples_fails() {
+        TestExecutionSummary summary = run(OverBudget.class);
+
+        assertEquals(1, summary.getTestsFailedCount(), "Deveria reprovar");
+        String message = summary.getFailures().get(0).getException().getMessage();
+        assertTrue(message.contains("estourou o orçamento de 1 ms"), message);
+    }
+
+    @Test
+    @DisplayName("✅ Abaixo do mínimo de amostras o orçamento não reprova")
+    public void budget_belowMinSamples_notEnforced() {
+        TestExecutionSummary summary = run(FewSamples.class);
+
+        assertEquals(1, summary.getTestsSucceededCount(), "Uma amostra lenta não deveria reprovar");
+    }
+
+    @Test
+    @DisplayName("✅ Percentil dentro do orçamento passa")
+    public void budget_within_passes() {
+        TestExecutionSummary summary = run(WithinBudget.class);
+
+        assertEquals(1, summary.getTestsSucceededCount(), "Dentro do orçamento");
+    }
+
+    @Test
+    @DisplayName("✅ Teste anotado sem requisições medidas reprova")
+    public void budget_withoutRequests_fails() {
+        TestExecutionSummary summary = run(NoRequests.class);
+
+        assertEquals(1, summary.getTestsFailedCount(), "Orçamento sem medida é erro de uso");
+        String message = summary.getFailures().get(0).getException().getMessage();
+        assertTrue(message.contains("sem requisições medidas"), message);
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // Classes executadas pelo launcher interno (@Disabled fora dele)
+    // ═══════════════════════════════════════════════════════════════
+
+    @Disabled("Executada pelo LatencyBudgetExtensionTests")
+    static class OverBudget {
+        @Test
+        @LatencyBudget(p = 95, millis = 1, warmup = 0, repetitions = 2)
+        void slow() {
+            record(10, 50);
+        }
+    }
+
+    @Disabled("Executada pelo LatencyBudgetExtensionTests")
+    static class FewSamples {
+        @Test
+        @LatencyBudget(p = 95, millis = 1, warmup = 0, repetitions = 1)
+        void slowOnce() {
+            record(1, 50);
+        }
+    }
+
+    @Disabled("Executada pelo LatencyBudgetExtensionTests")
+    static class WithinBudget {
+        @Test
+        @LatencyBudget(p = 95, millis = 100, warmup = 0, repetitions = 2)
+        void fast() {
+            record(10, 1);
+        }
+    }
+
+    @Disabled("Executada pelo LatencyBudgetExtensionTests")
+    static class NoRequests {
+        @Test
+        @LatencyBudget(p = 95, millis = 100, warmup = 0, repetitions = 1)
+        void nothing() {
+        }
+    }
+
+    /** Grava {@code count} amostras de {@code millis} no histograma que a extensão está medindo. */
+    private static void record(int count, long millis) {
+        Histogram sink = LatencyRecorder.capture(null);
+        LatencyRecorder.capture(sink);
+        for (int i = 0; i < count; i++) {
+            sink.recordValue(millis * 1000);
+        }
+    }
+
+    /**
+     * Sem os listeners registrados por ServiceLoader: o launcher interno não pode fechar
+     * a sessão da suíte (stand-in, ledger, relatórios) nem aparecer no resumo dela.
+     */
+    private static TestExecutionSummary run(Class<?> testClass) {
+        Launcher launcher = LauncherFactory.create(LauncherConfig.builder()
+                .enableLauncherSessionListenerAutoRegistration(false)
+                .enableTestExecutionListenerAutoRegistration(false)
+                .enableLauncherDiscoveryListenerAutoRegistration(false)
+                .enablePostDiscoveryFilterAutoRegistration(false)
+                .build());
+        SummaryGeneratingListener listener = new SummaryGeneratingListener();
+        launcher.execute(request()
+                .selectors(selectClass(testClass))
+                .configurationParameter("junit.jupiter.conditions.deactivate", "org.junit.*DisabledCondition")
+                .configurationParameter("junit.jupiter.execution.parallel.enabled", "false")
+                .build(), listener);
+        return listener.getSummary();
+    }
+}
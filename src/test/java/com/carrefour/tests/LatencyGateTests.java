@@ -0,0 +1,98 @@
+package com.carrefour.tests;
+
+import com.carrefour.utils.LatencyGate;
+import com.carrefour.utils.LatencyRecorder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyGateTests {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final LatencyGate GATE = new LatencyGate(0.25, 50, 0.01, 10);
+
+    @Test
+    @DisplayName("✅ p95 acima da tolerância e do piso de ruído reprova")
+    public void compare_flagsPercentileRegression() throws Exception {
+        List<String> regressions = GATE.compare(report(100, 120, 0), report(200, 130, 0));
+
+        assertEquals(1, regressions.size(), "Só o p95 piorou além dos limites: " + regressions);
+        assertTrue(regressions.get(0).startsWith("GET /usuarios/{id} p95Ms"), regressions.get(0));
+    }
+
+    @Test
+    @DisplayName("✅ Piora menor que o piso de ruído é ignorada")
+    public void compare_ignoresChangesBelowMinDelta() throws Exception {
+        assertTrue(GATE.compare(report(10, 12, 0), report(40, 45, 0)).isEmpty(),
+                "+300% mas só 30 ms: abaixo de minDeltaMs");
+    }
+
+    @Test
+    @DisplayName("✅ Aumento da taxa de erros reprova")
+    public void compare_flagsErrorRateIncrease() throws Exception {
+        List<String> regressions = GATE.compare(report(100, 120, 0), report(100, 120, 5));
+
+        assertEquals(1, regressions.size(), regressions.toString());
+        assertTrue(regressions.get(0).contains("taxa de erros"), regressions.get(0));
+    }
+
+    @Test
+    @DisplayName("✅ Endpoint da baseline ausente do relatório (execução parcial) reprova")
+    public void compare_flagsMissingEndpoint() throws Exception {
+        JsonNode partial = MAPPER.readTree("{\"target\": \"local\", \"endpoints\": {}}");
+
+        List<String> regressions = GATE.compare(report(100, 120, 0), partial);
+
+        assertEquals(1, regressions.size(), regressions.toString());
+        assertTrue(regressions.get(0).startsWith("GET /usuarios/{id} está na baseline"), regressions.get(0));
+    }
+
+    @Test
+    @DisplayName("✅ p99 com menos de 100 amostras (o próprio máximo) não é comparado")
+    public void compare_skipsUnsupportedPercentile() throws Exception {
+        assertTrue(GATE.compare(report(50, 100, 120, 0), report(50, 100, 400, 0)).isEmpty(),
+                "Só o p99 piorou, com 50 amostras");
+        assertEquals(1, GATE.compare(report(100, 120, 0), report(100, 400, 0)).size(), "Com 100 amostras, reprova");
+    }
+
+    @Test
+    @DisplayName("✅ Relatórios dos forks são somados pelos histogramas, não pelos percentis")
+    public void merge_sumsForkHistograms() {
+        LatencyRecorder fast = new LatencyRecorder();
+        LatencyRecorder slow = new LatencyRecorder();
+        for (int i = 0; i < 90; i++) {
+            fast.record("GET /usuarios", 10_000_000L, true);
+        }
+        for (int i = 0; i < 10; i++) {
+            slow.record("GET /usuarios", 1_000_000_000L, i > 0);
+        }
+
+        JsonNode merged = LatencyRecorder.merge(List.of(fast.toJson(), slow.toJson()))
+                .path("endpoints").path("GET /usuarios");
+
+        assertEquals(100, merged.path("count").asLong());
+        assertEquals(1, merged.path("errors").asLong());
+        assertEquals(10.0, merged.path("p50Ms").asDouble(), 0.1);
+        assertEquals(1000.0, merged.path("p95Ms").asDouble(), 1.0, "p95 vem dos 10 lentos do outro fork");
+    }
+
+    private static JsonNode report(double p95, double p99, long errors) throws Exception {
+        return report(100, p95, p99, errors);
+    }
+
+    private static JsonNode report(long count, double p95, double p99, long errors) throws Exception {
+        return MAPPER.readTree("""
+                {
+                  "target": "local",
+                  "endpoints": {
+                    "GET /usuarios/{id}": {"count": %d, "errors": %d, "p50Ms": 5, "p95Ms": %s, "p99Ms": %s, "maxMs": 500}
+                  }
+                }
+                """.formatted(count, errors, p95, p99));
+    }
+}
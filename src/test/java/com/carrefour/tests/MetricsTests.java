@@ -0,0 +1,80 @@
+package com.carrefour.tests;
+
+import com.carrefour.utils.ApiConfig;
+import com.carrefour.utils.Cassette;
+import com.carrefour.utils.Metrics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsTests {
+
+    @Test
+    @DisplayName("✅ Exportação no formato do Prometheus, com o rótulo do alvo")
+    public void exposition_followsPrometheusTextFormat() {
+        Metrics metrics = new Metrics();
+        metrics.counter("t_requests_total", "Requisições", "path", "/usuarios/{id}", "status", "200").add(3);
+        metrics.gauge("t_rate_rpm", "Taxa", () -> 120.0);
+
+        String text = metrics.exposition();
+        String target = "target=\"" + ApiConfig.targetKey() + "\"";
+
+        assertTrue(text.contains("# HELP t_requests_total Requisições\n# TYPE t_requests_total counter\n"), text);
+        assertTrue(text.contains("t_requests_total{" + target + ",path=\"/usuarios/{id}\",status=\"200\"} 3\n"), text);
+        assertTrue(text.contains("# TYPE t_rate_rpm gauge\nt_rate_rpm{" + target + "} 120\n"), text);
+        assertTrue(text.indexOf("t_rate_rpm") < text.indexOf("t_requests_total"), "Métricas em ordem de nome");
+        assertThrows(IllegalArgumentException.class, () -> metrics.histogram("t_requests_total", "x", new double[]{1}),
+                "Mesmo nome com outro tipo deve falhar");
+    }
+
+    @Test
+    @DisplayName("✅ Requisições reaproveitam as séries do endpoint, uma por status")
+    public void recordRequest_reusesSeriesPerStatus() {
+        String path = "/t-metrics/" + System.nanoTime();
+        Metrics.recordRequest("GET", path, 200, 1_000_000L);
+        Metrics.recordRequest("GET", path, 200, 1_000_000L);
+        Metrics.recordRequest("GET", path, 404, 1_000_000L);
+
+        String text = Metrics.shared().exposition();
+        String labels = "method=\"GET\",path=\"" + path + "\"";
+        assertTrue(text.contains(labels + ",status=\"200\"} 2\n"), text);
+        assertTrue(text.contains(labels + ",status=\"404\"} 1\n"), text);
+        assertEquals(!Cassette.isReplay(), text.contains("carrefour_http_request_duration_seconds_count{target=\""
+                + ApiConfig.targetKey() + "\"," + labels + "} 3\n"), "Duração só fora da reprodução de cassete");
+    }
+
+    @Test
+    @DisplayName("✅ Histograma acumula os buckets e não perde registros concorrentes")
+    public void histogram_isCumulative_andThreadSafe() throws InterruptedException {
+        Metrics metrics = new Metrics();
+        Metrics.Histogram histogram = metrics.histogram("t_seconds", "Duração", new double[]{0.1, 1});
+        histogram.observe(0.05);
+        histogram.observe(0.1);
+        histogram.observe(0.5);
+        histogram.observe(3);
+
+        String text = metrics.exposition();
+        assertTrue(text.contains(",le=\"0.1\"} 2\n"), text);
+        assertTrue(text.contains(",le=\"1\"} 3\n"), text);
+        assertTrue(text.contains(",le=\"+Inf\"} 4\n"), text);
+        assertTrue(text.contains("t_seconds_sum{target=\"" + ApiConfig.targetKey() + "\"} 3.65\n"), text);
+
+        Metrics.Counter counter = metrics.counter("t_total", "Contador");
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 4; i++) {
+            pool.execute(() -> {
+                for (int j = 0; j < 10_000; j++) {
+                    counter.inc();
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(40_000, counter.get());
+    }
+}
@@ -0,0 +1,55 @@
+package com.carrefour.tests;
+
+import com.carrefour.utils.SchemaValidator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SchemaValidatorTests {
+
+    private static final String USER = "{\"nome\":\"Fulano\",\"email\":\"fulano@qa.com\",\"password\":\"teste\","
+            + "\"administrador\":\"true\",\"_id\":\"0uxuPY0cbmQhpEz1\"}";
+
+    @Test
+    @DisplayName("✅ Respostas dentro do contrato passam; o schema é compilado uma vez")
+    public void validResponses_pass() {
+        SchemaValidator.Schema list = SchemaValidator.compile("get-usuarios-200.json");
+
+        assertEquals(List.of(), list.validate(bytes("{\"quantidade\":1,\"usuarios\":[" + USER + "]}")));
+        assertEquals(List.of(), SchemaValidator.compile("get-usuarios-id-200.json").validate(bytes(USER)));
+        assertEquals(List.of(), SchemaValidator.compile("error-4xx.json")
+                .validate(bytes("{\"email\":\"email deve ser um email válido\",\"password\":\"password é obrigatório\"}")));
+        assertSame(list, SchemaValidator.compile("get-usuarios-200.json"), "Mesmo arquivo deve vir do cache");
+    }
+
+    @Test
+    @DisplayName("❌ Violações apontam o campo: tipo, obrigatório, enum, padrão e campo extra")
+    public void violations_pointToTheField() {
+        String user = USER.replace("\"true\"", "\"sim\"").replace(",\"_id\":\"0uxuPY0cbmQhpEz1\"", "");
+        String body = "{\"quantidade\":\"1\",\"usuarios\":[" + user + "],\"extra\":{\"a\":[1,2]}}";
+
+        List<String> violations = SchemaValidator.compile("get-usuarios-200.json").validate(bytes(body));
+
+        assertEquals(4, violations.size(), violations::toString);
+        assertTrue(violations.contains("$.quantidade: esperado [integer], obtido string"), violations::toString);
+        assertTrue(violations.contains("$.usuarios[0]._id: obrigatório"), violations::toString);
+        assertTrue(violations.stream().anyMatch(v -> v.startsWith("$.usuarios[0].administrador: \"sim\" fora de")),
+                violations::toString);
+        assertTrue(violations.contains("$.extra: campo não previsto"), violations::toString);
+
+        List<String> login = SchemaValidator.compile("post-login-200.json")
+                .validate(bytes("{\"message\":\"ok\",\"authorization\":\"Token abc\"}"));
+        assertEquals(1, login.size(), login::toString);
+        assertTrue(login.get(0).startsWith("$.authorization:"), login::toString);
+        assertFalse(SchemaValidator.compile("message.json").validate(bytes("{\"message\":")).isEmpty(),
+                "JSON truncado deve ser violação");
+    }
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
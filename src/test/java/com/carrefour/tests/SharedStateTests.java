@@ -0,0 +1,60 @@
+package com.carrefour.tests;
+
+import com.carrefour.utils.JwtProvider;
+import com.carrefour.utils.SharedState;
+import com.carrefour.utils.TokenBucket;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Duas instâncias sobre o mesmo arquivo fazem o papel de duas JVMs.
+ */
+public class SharedStateTests {
+
+    @Test
+    @DisplayName("✅ Buckets de processos diferentes dividem a mesma rajada")
+    public void bucketCell_isSharedAcrossInstances(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("state.mmap");
+        TokenBucket first = new TokenBucket(0.001, 4, new SharedState(file).bucketCell());
+        TokenBucket second = new TokenBucket(0.001, 4, new SharedState(file).bucketCell());
+
+        int granted = 0;
+        for (int i = 0; i < 4; i++) {
+            granted += (first.tryAcquire() ? 1 : 0) + (second.tryAcquire() ? 1 : 0);
+        }
+
+        assertEquals(4, granted, "As duas instâncias somadas não podem passar da rajada");
+    }
+
+    @Test
+    @DisplayName("✅ Token gravado por um processo é reaproveitado pelo outro sem novo login")
+    public void token_isLoggedInOnceAcrossInstances(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("state.mmap");
+        long expiresAt = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(10);
+        AtomicInteger logins = new AtomicInteger();
+
+        JwtProvider.CachedToken first = new SharedState(file).token("http://host user@qa.com", t -> true, () -> {
+            logins.incrementAndGet();
+            return new JwtProvider.CachedToken("Bearer abc.def.ghi", expiresAt);
+        });
+        JwtProvider.CachedToken second = new SharedState(file).token("http://host user@qa.com", t -> true, () -> {
+            logins.incrementAndGet();
+            return null;
+        });
+
+        assertEquals(first, second);
+        assertEquals(1, logins.get(), "Só o primeiro processo deveria fazer login");
+
+        JwtProvider.CachedToken stale = new SharedState(file).token("http://host user@qa.com", t -> false,
+                () -> new JwtProvider.CachedToken("Bearer novo", expiresAt));
+        assertEquals("Bearer novo", stale.value(), "Token recusado pelo critério de validade força novo login");
+    }
+}
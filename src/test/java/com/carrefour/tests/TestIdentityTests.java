@@ -0,0 +1,50 @@
+package com.carrefour.tests;
+
+import com.carrefour.utils.TestIdentity;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestIdentityTests {
+
+    @Test
+    @DisplayName("✅ E-mails gerados por threads concorrentes nunca se repetem")
+    public void email_isUniqueAcrossThreads() throws InterruptedException {
+        int threads = 8;
+        int perThread = 5_000;
+        Set<String> emails = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    emails.add(TestIdentity.email("unico"));
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        pool.shutdownNow();
+
+        assertEquals(threads * perThread, emails.size(), "Nenhum e-mail deve se repetir");
+    }
+
+    @Test
+    @DisplayName("✅ E-mail, nome e senha seguem o formato aceito pela API")
+    public void identity_matchesApiRules() {
+        String email = TestIdentity.email("positive");
+
+        assertTrue(email.matches("positive-" + TestIdentity.runId() + "-[0-9a-z]+@qa\\.com"), email);
+        assertTrue(TestIdentity.name("Fixture").startsWith("Fixture " + TestIdentity.runId()));
+        assertTrue(TestIdentity.password().length() >= 5);
+    }
+}
@@ -0,0 +1,68 @@
+package com.carrefour.tests;
+
+import com.carrefour.utils.TokenBucket;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenBucketTests {
+
+    @Test
+    @DisplayName("✅ Rajada inicial é concedida sem espera")
+    public void burst_isGrantedImmediately() {
+        TokenBucket bucket = new TokenBucket(1, 5);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(bucket.tryAcquire(), "Permissão " + (i + 1) + " da rajada deve ser imediata");
+        }
+        assertFalse(bucket.tryAcquire(), "Após a rajada não deve haver permissão imediata");
+    }
+
+    @Test
+    @DisplayName("✅ tryAcquire com timeout espera no máximo o intervalo")
+    public void tryAcquire_withTimeout_waitsForNextPermit() {
+        TokenBucket bucket = new TokenBucket(20, 1);
+        // Medido desde a primeira permissão (TAT = ela + 50 ms); o limite de cima depende do
+        // escalonador e fica só no timeout
+        long start = System.nanoTime();
+        assertTrue(bucket.tryAcquire());
+
+        assertFalse(bucket.tryAcquire(Duration.ofMillis(1)), "Timeout menor que o intervalo deve falhar");
+
+        assertTrue(bucket.tryAcquire(Duration.ofMillis(200)), "Timeout maior que o intervalo deve obter a permissão");
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(elapsedMs >= 50, "Permissão antes do intervalo de 50 ms. Obtido: " + elapsedMs);
+    }
+
+    @Test
+    @DisplayName("✅ Threads concorrentes não ultrapassam a rajada")
+    public void concurrentCallers_neverExceedBurst() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(0.001, 10);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch done = new CountDownLatch(8);
+        AtomicInteger granted = new AtomicInteger();
+
+        for (int t = 0; t < 8; t++) {
+            pool.execute(() -> {
+                for (int i = 0; i < 100; i++) {
+                    if (bucket.tryAcquire()) {
+                        granted.incrementAndGet();
+                    }
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        pool.shutdownNow();
+
+        assertEquals(10, granted.get(), "Somente a rajada deve ser concedida");
+    }
+}
@@ -1,62 +1,58 @@
 package com.carrefour.tests;
 
+import com.carrefour.extensions.AuthToken;
+import com.carrefour.extensions.Fixture;
+import com.carrefour.extensions.FixtureUser;
+import com.carrefour.extensions.LatencyBudget;
+import com.carrefour.extensions.Principal;
+import com.carrefour.extensions.ServerestExtension;
+import com.carrefour.extensions.TokenPoolExtension;
+import com.carrefour.extensions.UserFixtureExtension;
+import com.carrefour.utils.ApiConfig;
+import com.carrefour.utils.Log;
+import com.carrefour.utils.TestIdentity;
 import io.restassured.RestAssured;
 import io.restassured.http.ContentType;
 import io.restassured.response.Response;
-import org.junit.jupiter.api.MethodOrderer;
-import org.junit.jupiter.api.TestMethodOrder;
+import io.restassured.specification.RequestSpecification;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
 
-import java.util.List;
-import java.util.Map;
-import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+/**
+ * Validações de borda do cadastro. Os testes são independentes entre si e
+ * rodam em paralelo; o estado da classe só é escrito no {@code @BeforeAll}.
+ */
+@ExtendWith({ServerestExtension.class, TokenPoolExtension.class, UserFixtureExtension.class})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Execution(ExecutionMode.CONCURRENT)
 public class UserApiEdgeTests {
 
-    private static final String BASE_URI = "https://serverest.dev";
-    private static String token;
+    private static final Log LOG = Log.get("EDGE");
 
-    @BeforeAll
-    static void setup() {
-        RestAssured.baseURI = BASE_URI;
-        
-        // Login para obter token
-        String loginPayload = """
-                {
-                  "email": "fulano@qa.com",
-                  "password": "teste"
-                }
-                """;
+    private RequestSpecification spec;
+    private String token;
 
-        Response loginResp = RestAssured
-                .given()
-                .contentType(ContentType.JSON)
-                .body(loginPayload)
-                .when()
-                .post("/login")
-                .then()
-                .extract()
-                .response();
+    @BeforeAll
+    void setup(@AuthToken(Principal.ADMIN) String adminToken) {
+        spec = ApiConfig.requestSpec();
 
-        System.out.println("[EDGE] Login status: " + loginResp.getStatusCode());
-        
-        if (loginResp.getStatusCode() == 200) {
-            token = loginResp.jsonPath().getString("authorization");
-            System.out.println("[EDGE] Token obtido com sucesso");
+        // Token pré-autenticado pelo pool (login feito em paralelo no início da suíte)
+        token = adminToken;
+        if (token != null) {
+            LOG.info("Token obtido com sucesso");
         } else {
-            token = null;
-            System.out.println("[EDGE] Login falhou – status: " + loginResp.getStatusCode());
-            System.out.println("[EDGE] Resposta do login: " + loginResp.asString());
+            LOG.warn("Login falhou – token indisponível no pool");
         }
         
-        System.out.println("[EDGE] Base URI configurado: " + BASE_URI);
+        LOG.info("Base URI configurado: {}", ApiConfig.baseUri());
     }
 
     @Test
-    @Order(1)
     @DisplayName("⚠️ CREATE com TODOS os campos vazios – 400")
     public void createUser_allEmptyFields_badRequest() {
         String json = """
@@ -68,10 +64,10 @@ public class UserApiEdgeTests {
                 }
                 """;
 
-        System.out.println("[EDGE] Testando todos os campos vazios...");
+        LOG.debug("Testando todos os campos vazios...");
 
         Response resp = RestAssured
-                .given()
+                .given(spec)
                 .contentType(ContentType.JSON)
                 .header("Authorization", "Bearer " + token)
                 .body(json)
@@ -81,14 +77,13 @@ public class UserApiEdgeTests {
                 .extract()
                 .response();
 
-        System.out.println("[EDGE] Status campos vazios: " + resp.getStatusCode());
+        LOG.debug("Status campos vazios: {}", resp.getStatusCode());
 
         assertEquals(400, resp.getStatusCode(),
                 "Todos os campos vazios devem gerar 400");
     }
 
     @Test
-    @Order(2)
     @DisplayName("⚠️ CREATE com nome vazio – 400")
     public void createUser_nomeEmpty_badRequest() {
         String json = """
@@ -100,10 +95,10 @@ public class UserApiEdgeTests {
                 }
                 """;
 
-        System.out.println("[EDGE] Testando nome vazio...");
+        LOG.debug("Testando nome vazio...");
 
         Response resp = RestAssured
-                .given()
+                .given(spec)
                 .contentType(ContentType.JSON)
                 .header("Authorization", "Bearer " + token)
                 .body(json)
@@ -113,14 +108,13 @@ public class UserApiEdgeTests {
                 .extract()
                 .response();
 
-        System.out.println("[EDGE] Status nome vazio: " + resp.getStatusCode());
+        LOG.debug("Status nome vazio: {}", resp.getStatusCode());
 
         assertEquals(400, resp.getStatusCode(),
                 "Nome vazio deve gerar 400");
     }
 
     @Test
-    @Order(3)
     @DisplayName("⚠️ CREATE com email vazio – 400")
     public void createUser_emailEmpty_badRequest() {
         String json = """
@@ -132,10 +126,10 @@ public class UserApiEdgeTests {
                 }
                 """;
 
-        System.out.println("[EDGE] Testando email vazio...");
+        LOG.debug("Testando email vazio...");
 
         Response resp = RestAssured
-                .given()
+                .given(spec)
                 .contentType(ContentType.JSON)
                 .header("Authorization", "Bearer " + token)
                 .body(json)
@@ -145,14 +139,13 @@ public class UserApiEdgeTests {
                 .extract()
                 .response();
 
-        System.out.println("[EDGE] Status email vazio: " + resp.getStatusCode());
+        LOG.debug("Status email vazio: {}", resp.getStatusCode());
 
         assertEquals(400, resp.getStatusCode(),
                 "Email vazio deve gerar 400");
     }
 
     @Test
-    @Order(4)
     @DisplayName("⚠️ CREATE com password vazio – 400")
     public void createUser_passwordEmpty_badRequest() {
         String json = """
@@ -164,10 +157,10 @@ public class UserApiEdgeTests {
                 }
                 """;
 
-        System.out.println("[EDGE] Testando password vazio...");
+        LOG.debug("Testando password vazio...");
 
         Response resp = RestAssured
-                .given()
+                .given(spec)
                 .contentType(ContentType.JSON)
                 .header("Authorization", "Bearer " + token)
                 .body(json)
@@ -177,14 +170,13 @@ public class UserApiEdgeTests {
                 .extract()
                 .response();
 
-        System.out.println("[EDGE] Status password vazio: " + resp.getStatusCode());
+        LOG.debug("Status password vazio: {}", resp.getStatusCode());
 
         assertEquals(400, resp.getStatusCode(),
                 "Password vazio deve gerar 400");
     }
 
     @Test
-    @Order(5)
     @DisplayName("⚠️ CREATE com administrador vazio – 400")
     public void createUser_adminEmpty_badRequest() {
         String json = """
@@ -196,10 +188,10 @@ public class UserApiEdgeTests {
                 }
                 """;
 
-        System.out.println("[EDGE] Testando administrador vazio...");
+        LOG.debug("Testando administrador vazio...");
 
         Response resp = RestAssured
-                .given()
+                .given(spec)
                 .contentType(ContentType.JSON)
                 .header("Authorization", "Bearer " + token)
                 .body(json)
@@ -209,14 +201,13 @@ public class UserApiEdgeTests {
                 .extract()
                 .response();
 
-        System.out.println("[EDGE] Status admin vazio: " + resp.getStatusCode());
+        LOG.debug("Status admin vazio: {}", resp.getStatusCode());
 
         assertEquals(400, resp.getStatusCode(),
                 "Administrador vazio deve gerar 400");
     }
 
     @Test
-    @Order(6)
     @DisplayName("⚠️ CREATE com administrador inválido – 400")
     public void createUser_adminInvalid_badRequest() {
         String json = """
@@ -228,10 +219,10 @@ public class UserApiEdgeTests {
                 }
                 """;
 
-        System.out.println("[EDGE] Testando administrador inválido...");
+        LOG.debug("Testando administrador inválido...");
 
         Response resp = RestAssured
-                .given()
+                .given(spec)
                 .contentType(ContentType.JSON)
                 .header("Authorization", "Bearer " + token)
                 .body(json)
@@ -241,14 +232,13 @@ public class UserApiEdgeTests {
                 .extract()
                 .response();
 
-        System.out.println("[EDGE] Status admin inválido: " + resp.getStatusCode());
+        LOG.debug("Status admin inválido: {}", resp.getStatusCode());
 
         assertEquals(400, resp.getStatusCode(),
                 "Administrador inválido deve gerar 400");
     }
 
     @Test
-    @Order(7)
     @DisplayName("⚠️ BUG – nome só com espaços – 400")
     public void createUser_nameOnlySpaces_bug() {
         String json = """
@@ -260,10 +250,10 @@ public class UserApiEdgeTests {
                 }
                 """;
 
-        System.out.println("[EDGE] Testando nome só com espaços...");
+        LOG.debug("Testando nome só com espaços...");
 
         Response resp = RestAssured
-                .given()
+                .given(spec)
                 .contentType(ContentType.JSON)
                 .header("Authorization", "Bearer " + token)
                 .body(json)
@@ -273,14 +263,13 @@ public class UserApiEdgeTests {
                 .extract()
                 .response();
 
-        System.out.println("[EDGE] Status nome com espaços: " + resp.getStatusCode());
+        LOG.debug("Status nome com espaços: {}", resp.getStatusCode());
 
         assertEquals(400, resp.getStatusCode(),
                 "Nome só com espaços deve gerar 400");
     }
 
     @Test
-    @Order(8)
     @DisplayName("⚠️ BUG – password só com espaços – 400")
     public void createUser_passwordOnlySpaces_bug() {
         String json = """
@@ -292,10 +281,10 @@ public class UserApiEdgeTests {
                 }
                 """;
 
-        System.out.println("[EDGE] Testando password só com espaços...");
+        LOG.debug("Testando password só com espaços...");
 
         Response resp = RestAssured
-                .given()
+                .given(spec)
                 .contentType(ContentType.JSON)
                 .header("Authorization", "Bearer " + token)
                 .body(json)
@@ -305,14 +294,13 @@ public class UserApiEdgeTests {
                 .extract()
                 .response();
 
-        System.out.println("[EDGE] Status password com espaços: " + resp.getStatusCode());
+        LOG.debug("Status password com espaços: {}", resp.getStatusCode());
 
         assertEquals(400, resp.getStatusCode(),
                 "Password só com espaços deve gerar 400");
     }
 
     @Test
-    @Order(9)
     @DisplayName("⚠️ CREATE com senha fraca – 400")
     public void createUser_weakPassword_badRequest() {
         String json = """
@@ -324,10 +312,10 @@ public class UserApiEdgeTests {
                 }
                 """;
 
-        System.out.println("[EDGE] Testando senha fraca...");
+        LOG.debug("Testando senha fraca...");
 
         Response resp = RestAssured
-                .given()
+                .given(spec)
                 .contentType(ContentType.JSON)
                 .header("Authorization", "Bearer " + token)
                 .body(json)
@@ -337,14 +325,13 @@ public class UserApiEdgeTests {
                 .extract()
                 .response();
 
-        System.out.println("[EDGE] Status senha fraca: " + resp.getStatusCode());
+        LOG.debug("Status senha fraca: {}", resp.getStatusCode());
 
         assertEquals(400, resp.getStatusCode(),
                 "Senha fraca deve gerar 400");
     }
 
     @Test
-    @Order(10)
     @DisplayName("⚠️ CREATE com campos exatamente 100 chars – 400")
     public void createUser_maxLength_badRequest() {
         String maxName = "N".repeat(100);
@@ -361,13 +348,13 @@ public class UserApiEdgeTests {
                 }
                 """.formatted(maxName, maxEmail, maxPassword);
 
-        System.out.println("[EDGE] Testando campos com 100 caracteres...");
-        System.out.println("[EDGE] Tamanho nome: " + maxName.length());
-        System.out.println("[EDGE] Tamanho email: " + maxEmail.length());
-        System.out.println("[EDGE] Tamanho password: " + maxPassword.length());
+        LOG.debug("Testando campos com 100 caracteres...");
+        LOG.debug("Tamanho nome: {}", maxName.length());
+        LOG.debug("Tamanho email: {}", maxEmail.length());
+        LOG.debug("Tamanho password: {}", maxPassword.length());
 
         Response resp = RestAssured
-                .given()
+                .given(spec)
                 .contentType(ContentType.JSON)
                 .header("Authorization", "Bearer " + token)
                 .body(json)
@@ -377,14 +364,13 @@ public class UserApiEdgeTests {
                 .extract()
                 .response();
 
-        System.out.println("[EDGE] Status 100 chars: " + resp.getStatusCode());
+        LOG.debug("Status 100 chars: {}", resp.getStatusCode());
 
         assertEquals(400, resp.getStatusCode(),
                 "Campos com 100 caracteres devem gerar 400");
     }
 
     @Test
-    @Order(11)
     @DisplayName("⚠️ CREATE com campos >100 chars – 400")
     public void createUser_exceedMaxLength_badRequest() {
         String tooLongName = "N".repeat(101);
@@ -400,11 +386,11 @@ public class UserApiEdgeTests {
                 }
                 """.formatted(tooLongName, email, password);
 
-        System.out.println("[EDGE] Testando nome com 101 caracteres...");
-        System.out.println("[EDGE] Tamanho nome: " + tooLongName.length());
+        LOG.debug("Testando nome com 101 caracteres...");
+        LOG.debug("Tamanho nome: {}", tooLongName.length());
 
         Response resp = RestAssured
-                .given()
+                .given(spec)
                 .contentType(ContentType.JSON)
                 .header("Authorization", "Bearer " + token)
                 .body(json)
@@ -414,49 +400,19 @@ public class UserApiEdgeTests {
                 .extract()
                 .response();
 
-        System.out.println("[EDGE] Status >100 chars: " + resp.getStatusCode());
+        LOG.debug("Status >100 chars: {}", resp.getStatusCode());
 
         assertEquals(400, resp.getStatusCode(),
                 "Nome com mais de 100 caracteres deve gerar 400");
     }
 
     @Test
-    @Order(12)
     @DisplayName("⚠️ CREATE com email já cadastrado – 400")
-    public void createUser_duplicateEmail_badRequest() {
-        // E-mail ULTRA-ÚNICO para este teste
-        long ts = System.currentTimeMillis();
-        String uniquePart = UUID.randomUUID().toString().substring(0, 8);
-        String email = "duplicate-edge-" + ts + "-" + uniquePart + "@qa.com";
-        
-        System.out.println("[EDGE] E-mail único gerado para teste de duplicação: " + email);
+    public void createUser_duplicateEmail_badRequest(@Fixture FixtureUser existing) {
+        // Usuário já cadastrado, emprestado do pool de fixtures (sem POST próprio)
+        String email = existing.email();
 
-        // Primeiro usuário (deve dar sucesso)
-        String firstJson = """
-                {
-                  "nome": "Primeiro",
-                  "email": "%s",
-                  "password": "Abc12345",
-                  "administrador": "false"
-                }
-                """.formatted(email);
-
-        Response firstResp = RestAssured
-                .given()
-                .contentType(ContentType.JSON)
-                .header("Authorization", "Bearer " + token)
-                .body(firstJson)
-                .when()
-                .post("/usuarios")
-                .then()
-                .extract()
-                .response();
-
-        System.out.println("[EDGE] Status criação inicial: " + firstResp.getStatusCode());
-        System.out.println("[EDGE] Resposta inicial: " + firstResp.asString());
-
-        assertEquals(201, firstResp.getStatusCode(),
-                "Criação inicial deve ser bem‑sucedida"); 
+        LOG.debug("E-mail já cadastrado usado no teste de duplicação: {}", email);
 
         // Agora tenta duplicar o MESMO e-mail
         String dupJson = """
@@ -469,7 +425,7 @@ public class UserApiEdgeTests {
                 """.formatted(email);
 
         Response dupResp = RestAssured
-                .given()
+                .given(spec)
                 .contentType(ContentType.JSON)
                 .header("Authorization", "Bearer " + token)
                 .body(dupJson)
@@ -479,23 +435,56 @@ public class UserApiEdgeTests {
                 .extract()
                 .response();
 
-        System.out.println("[EDGE] Status duplicação: " + dupResp.getStatusCode());
-        System.out.println("[EDGE] Resposta duplicação: " + dupResp.asString());
+        LOG.debug("Status duplicação: {}", dupResp.getStatusCode());
+        LOG.debug("Resposta duplicação: {}", dupResp.asString());
 
         assertEquals(400, dupResp.getStatusCode(),
                 "Email duplicado deve gerar 400");
     }
 
     @Test
-    @Order(13)
+    @DisplayName("✅ UPDATE do nome de um usuário existente, restaurado em seguida – 200")
+    public void updateUser_renameAndRestore_ok(@Fixture(exclusive = true) FixtureUser target) {
+        // Empréstimo exclusivo: nenhum outro teste lê este usuário enquanto o nome está trocado
+        try {
+            Response renamed = updateNome(target, "Renomeado Edge");
+            assertEquals(200, renamed.getStatusCode(), "UPDATE deve retornar 200. Obtido: " + renamed.getStatusCode());
+
+            String nome = RestAssured.given(spec).get("/usuarios/" + target.id()).jsonPath().getString("nome");
+            assertEquals("Renomeado Edge", nome, "GET deve refletir o nome novo");
+        } finally {
+            // Devolve o usuário ao pool como foi emprestado
+            assertEquals(200, updateNome(target, target.nome()).getStatusCode(), "Falha ao restaurar a fixture");
+        }
+    }
+
+    private Response updateNome(FixtureUser user, String nome) {
+        String json = """
+                {
+                  "nome": "%s",
+                  "email": "%s",
+                  "password": "%s",
+                  "administrador": "false"
+                }
+                """.formatted(nome, user.email(), user.password());
+
+        return RestAssured
+                .given(spec)
+                .contentType(ContentType.JSON)
+                .header("Authorization", "Bearer " + token)
+                .body(json)
+                .when()
+                .put("/usuarios/" + user.id());
+    }
+
+    @Test
     @DisplayName("✅ CREATE com payload válido – 201")
+    @LatencyBudget(p = 95, millis = 500)
     public void createUser_successful() {
-        // E-mail ULTRA-ÚNICO para teste de sucesso
-        long ts = System.currentTimeMillis();
-        String uniquePart = UUID.randomUUID().toString().substring(0, 8);
-        String email = "controle-" + ts + "-" + uniquePart + "@gmail.com";
+        // E-mail único da execução
+        String email = TestIdentity.email("controle");
         
-        System.out.println("[EDGE] E-mail único para teste de sucesso: " + email);
+        LOG.debug("E-mail único para teste de sucesso: {}", email);
 
         String json = """
                 {
@@ -507,7 +496,7 @@ public class UserApiEdgeTests {
                 """.formatted(email);
 
         Response resp = RestAssured
-                .given()
+                .given(spec)
                 .contentType(ContentType.JSON)
                 .header("Authorization", "Bearer " + token)
                 .body(json)
@@ -517,65 +506,10 @@ public class UserApiEdgeTests {
                 .extract()
                 .response();
 
-        System.out.println("[EDGE] Status criação válida: " + resp.getStatusCode());
-        System.out.println("[EDGE] Resposta sucesso: " + resp.asString());
+        LOG.debug("Status criação válida: {}", resp.getStatusCode());
+        LOG.debug("Resposta sucesso: {}", resp.asString());
 
         assertEquals(201, resp.getStatusCode(),
                 "Payload válido deve gerar 201");
     }
-
-    @AfterAll
-    static void cleanup() {
-        System.out.println("\n🧹 [EDGE] Iniciando limpeza de usuários de teste...");
-
-        if (token != null) {
-            // Listar todos os usuários para limpeza
-            Response listResp = RestAssured
-                    .given()
-                    .header("Authorization", "Bearer " + token)
-                    .when()
-                    .get("/usuarios")
-                    .then()
-                    .extract()
-                    .response();
-
-            if (listResp.getStatusCode() == 200) {
-                List<Map<String, Object>> usuarios = listResp.jsonPath().getList("usuarios");
-                int countDeleted = 0;
-
-                System.out.println("[EDGE] Encontrados " + usuarios.size() + " usuários na base");
-
-                for (Map<String, Object> usuario : usuarios) {
-                    String email = (String) usuario.get("email");
-                    if (email != null && email.contains("edge-")) {
-                        String id = (String) usuario.get("_id");
-                        String nome = (String) usuario.get("nome");
-                        
-                        // Deletar usuário de teste
-                        Response delResp = RestAssured
-                                .given()
-                                .header("Authorization", "Bearer " + token)
-                                .when()
-                                .delete("/usuarios/{id}", id)
-                                .then()
-                                .extract()
-                                .response();
-
-                        if (delResp.getStatusCode() == 200) {
-                            countDeleted++;
-                            System.out.println("   ✅ Usuário removido: " + email + " (ID: " + id + ", Nome: " + nome + ")");
-                        } else {
-                            System.out.println("   ❌ Falha ao remover: " + email + " (status: " + delResp.getStatusCode() + ")");
-                        }
-                    }
-                }
-                
-                System.out.println("[EDGE] Limpeza concluída: " + countDeleted + " usuários removidos");
-            } else {
-                System.out.println("[EDGE] ❌ Não foi possível listar usuários para limpeza (status: " + listResp.getStatusCode() + ")");
-            }
-        } else {
-            System.out.println("[EDGE] ⚠️ Token não disponível, pulando limpeza");
-        }
-    }
 }
@@ -1,40 +1,55 @@
 package com.carrefour.tests;
 
+import com.carrefour.extensions.Fixture;
+import com.carrefour.extensions.FixtureUser;
+import com.carrefour.extensions.LatencyBudget;
+import com.carrefour.extensions.ServerestExtension;
+import com.carrefour.extensions.UserFixtureExtension;
+import com.carrefour.utils.ApiConfig;
+import com.carrefour.utils.Log;
+import com.carrefour.utils.TestIdentity;
 import io.restassured.RestAssured;
 import io.restassured.http.ContentType;
 import io.restassured.response.Response;
-import org.junit.jupiter.api.MethodOrderer;
-import org.junit.jupiter.api.TestMethodOrder;
+import io.restassured.specification.RequestSpecification;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+/**
+ * Cenários negativos independentes entre si; rodam em paralelo.
+ */
+@ExtendWith({ServerestExtension.class, UserFixtureExtension.class})
+@Execution(ExecutionMode.CONCURRENT)
 public class UserApiNegativeTests {
 
-    private static final String BASE_URI = "https://serverest.dev";
+    private static final Log LOG = Log.get("NEGATIVE");
+
+    private static RequestSpecification spec;
 
     @BeforeAll
     static void setup() {
-        RestAssured.baseURI = BASE_URI;
-        System.out.println("[NEGATIVE] Base URI configurado: " + BASE_URI);
+        spec = ApiConfig.requestSpec();
+        LOG.info("Base URI configurado: {}", ApiConfig.baseUri());
     }
 
     @Test
-    @Order(1)
     @DisplayName("⚠️ CREATE sem token – 201 ou 400 (dependendo da política atual)")
     public void createUser_withoutToken_unauthorized() {
         String json = """
                 {
                   "nome": "Teste Sem Token",
-                  "email": "semtoken_%d@qa.com",
+                  "email": "%s",
                   "password": "Abc12345",
                   "administrador": false
                 }
-                """.formatted(System.currentTimeMillis());
+                """.formatted(TestIdentity.email("semtoken"));
 
         Response resp = RestAssured
-                .given()
+                .given(spec)
                 .contentType(ContentType.JSON)
                 .body(json)
                 .when()
@@ -54,12 +69,12 @@ public class UserApiNegativeTests {
     }
 
     @Test
-    @Order(2)
     @DisplayName("⚠️ GET usuário inexistente (ID inválido) – 400")
+    @LatencyBudget(p = 95, millis = 300)
     public void getUser_nonExisting_notFound() {
         String invalidId = "12345";
         Response resp = RestAssured
-                .given()
+                .given(spec)
                 .when()
                 .get("/usuarios/{id}", invalidId)
                 .then()
@@ -70,7 +85,6 @@ public class UserApiNegativeTests {
     }
 
     @Test
-    @Order(3)
     @DisplayName("⚠️ UPDATE usuário inexistente (ID inválido) – 400")
     public void updateUser_nonExisting_notFound() {
         String invalidId = "abcde";
@@ -84,7 +98,7 @@ public class UserApiNegativeTests {
                 """;
 
         Response resp = RestAssured
-                .given()
+                .given(spec)
                 .contentType(ContentType.JSON)
                 .body(json)
                 .when()
@@ -97,12 +111,11 @@ public class UserApiNegativeTests {
     }
 
     @Test
-    @Order(4)
     @DisplayName("⚠️ DELETE usuário inexistente (ID válido) – 200")
     public void deleteUser_nonExisting_notFound() {
         String nonExistingId = "aaaaaaaaaaaaaaaa";
         Response resp = RestAssured
-                .given()
+                .given(spec)
                 .when()
                 .delete("/usuarios/{id}", nonExistingId)
                 .then()
@@ -113,7 +126,6 @@ public class UserApiNegativeTests {
     }
 
     @Test
-    @Order(5)
     @DisplayName("⚠️ CREATE com payload incompleto – 400")
     public void createUser_missingFields_badRequest() {
         String json = """
@@ -123,7 +135,7 @@ public class UserApiNegativeTests {
                 """;
 
         Response resp = RestAssured
-                .given()
+                .given(spec)
                 .contentType(ContentType.JSON)
                 .body(json)
                 .when()
@@ -136,34 +148,10 @@ public class UserApiNegativeTests {
     }
 
     @Test
-    @Order(6)
     @DisplayName("⚠️ CREATE com email já cadastrado – 400")
-    public void createUser_duplicateEmail_badRequest() {
-        long ts = System.currentTimeMillis();
-        String email = "duplicate_test_" + ts + "@qa.com";
-
-        // Primeiro usuário (válido)
-        String firstJson = """
-                {
-                  "nome": "Primeiro",
-                  "email": "%s",
-                  "password": "Abc12345",
-                  "administrador": "false"
-                }
-                """.formatted(email);
-
-        Response firstResp = RestAssured
-                .given()
-                .contentType(ContentType.JSON)
-                .body(firstJson)
-                .when()
-                .post("/usuarios")
-                .then()
-                .extract()
-                .response();
-
-        assertEquals(201, firstResp.getStatusCode(),
-                "Criação inicial deve ser bem‑sucedida");
+    public void createUser_duplicateEmail_badRequest(@Fixture FixtureUser existing) {
+        // Usuário já cadastrado, emprestado do pool de fixtures
+        String email = existing.email();
 
         // Tentativa de duplicar
         String dupJson = """
@@ -176,7 +164,7 @@ public class UserApiNegativeTests {
                 """.formatted(email);
 
         Response dupResp = RestAssured
-                .given()
+                .given(spec)
                 .contentType(ContentType.JSON)
                 .body(dupJson)
                 .when()
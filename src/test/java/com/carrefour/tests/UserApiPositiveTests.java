@@ -1,93 +1,73 @@
 package com.carrefour.tests;
 
-import io.restassured.RestAssured;
-import io.restassured.http.ContentType;
+import com.carrefour.extensions.AuthToken;
+import com.carrefour.extensions.LatencyBudget;
+import com.carrefour.extensions.Principal;
+import com.carrefour.extensions.ServerestExtension;
+import com.carrefour.extensions.TokenPoolExtension;
+import com.carrefour.flows.UserCrudFlow;
+import com.carrefour.utils.ApiConfig;
+import com.carrefour.utils.Log;
+import com.carrefour.utils.TestIdentity;
 import io.restassured.response.Response;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.TestMethodOrder;
 import org.junit.jupiter.api.*;
-
-import java.util.UUID;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static io.restassured.RestAssured.given;
 
+/**
+ * Fluxo CRUD encadeado (create → get → list → update → delete) sobre o mesmo usuário.
+ * A ordem importa, então os métodos desta classe rodam em sequência na mesma thread
+ * (padrão do {@code OrderAnnotation}); a classe em si roda em paralelo com as demais.
+ * Create, get, list e update têm orçamento de latência e são repetidos contra o
+ * stand-in; o delete não, porque só dá para apagar o usuário uma vez.
+ */
+@ExtendWith({ServerestExtension.class, TokenPoolExtension.class})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@Execution(ExecutionMode.SAME_THREAD)
 public class UserApiPositiveTests {
 
-    private static final String BASE_URI = "https://serverest.dev";
-    private static String token;
-    private static String createdUserId;
+    private static final Log LOG = Log.get("POSITIVE");
 
-    @BeforeAll
-    static void setup() {
-        RestAssured.baseURI = BASE_URI;
-        
-        // Login para obter token
-        String loginPayload = """
-                {
-                  "email": "fulano@qa.com",
-                  "password": "teste"
-                }
-                """;
-
-        Response loginResp = given()
-                .contentType(ContentType.JSON)
-                .body(loginPayload)
-                .post("/login");
-
-        System.out.println("[POSITIVE] Login status: " + loginResp.getStatusCode());
-        
-        if (loginResp.getStatusCode() == 200) {
-            token = loginResp.jsonPath().getString("authorization");
-            System.out.println("[POSITIVE] Token obtido: " + (token != null ? "SIM" : "NÃO"));
-        } else {
-            token = null;
-            System.out.println("[POSITIVE] Login falhou - status: " + loginResp.getStatusCode());
-        }
-    }
+    private UserCrudFlow flow;
+    private String token;
+    private String createdUserId;
 
-    // Método auxiliar para gerar e-mail único
-    private String gerarEmailUnico(String prefixo) {
-        long ts = System.currentTimeMillis();
-        String uuid = UUID.randomUUID().toString().substring(0, 8);
-        return prefixo + "-" + ts + "-" + uuid + "@qa.com";
+    @BeforeAll
+    void setup(@AuthToken(Principal.ADMIN) String adminToken) {
+        // Token pré-autenticado pelo pool (login feito em paralelo no início da suíte)
+        token = adminToken;
+        flow = new UserCrudFlow(ApiConfig.requestSpec(), token);
+        LOG.info("Token obtido: {}", token != null ? "SIM" : "NÃO");
     }
 
     @Test
     @Order(1)
     @DisplayName("✅ CREATE usuário válido")
+    @LatencyBudget(p = 95, millis = 500)
     public void createUser_successful() {
         if (token == null) {
-            System.out.println("[POSITIVE] Sem token, pulando criação");
+            LOG.warn("Sem token, pulando criação");
             return;
         }
 
-        String email = gerarEmailUnico("positive");
-        System.out.println("[POSITIVE] Criando com email: " + email);
-
-        String json = """
-                {
-                  "nome": "Usuário Positivo",
-                  "email": "%s",
-                  "password": "Abc12345",
-                  "administrador": "false"
-                }
-                """.formatted(email);
-
-        Response resp = given()
-                .contentType(ContentType.JSON)
-                .header("Authorization", "Bearer " + token)
-                .body(json)
-                .post("/usuarios");
-
-        System.out.println("[POSITIVE] Status criação: " + resp.getStatusCode());
+        String email = TestIdentity.email("positive");
+        LOG.debug("Criando com email: {}", email);
+
+        Response resp = flow.create(email);
+
+        LOG.debug("Status criação: {}", resp.getStatusCode());
         
         if (resp.getStatusCode() == 201) {
             createdUserId = resp.jsonPath().getString("_id");
-            System.out.println("[POSITIVE] ID criado: " + createdUserId);
+            LOG.debug("ID criado: {}", createdUserId);
         } else {
-            System.out.println("[POSITIVE] Criação falhou: " + resp.asString());
+            LOG.warn("Criação falhou: {}", resp.asString());
             createdUserId = null;
         }
 
@@ -98,18 +78,18 @@ public class UserApiPositiveTests {
     @Test
     @Order(2)
     @DisplayName("✅ GET usuário por ID")
+    @LatencyBudget(p = 95, millis = 300)
     public void getUser_byId_successful() {
         if (createdUserId == null) {
-            System.out.println("[POSITIVE] Sem ID criado, pulando GET");
+            LOG.warn("Sem ID criado, pulando GET");
             return;
         }
 
-        System.out.println("[POSITIVE] GET com ID: " + createdUserId);
+        LOG.debug("GET com ID: {}", createdUserId);
 
-        Response resp = given()
-                .get("/usuarios/" + createdUserId);
+        Response resp = flow.get(createdUserId);
 
-        System.out.println("[POSITIVE] Status GET: " + resp.getStatusCode());
+        LOG.debug("Status GET: {}", resp.getStatusCode());
 
         assertEquals(200, resp.getStatusCode(), 
                 "GET deve retornar 200. Obtido: " + resp.getStatusCode());
@@ -122,57 +102,44 @@ public class UserApiPositiveTests {
     @Test
     @Order(3)
     @DisplayName("✅ LISTAR todos os usuários")
+    @LatencyBudget(p = 95, millis = 500)
     public void listUsers_successful() {
-        System.out.println("[POSITIVE] Listando usuários...");
+        LOG.debug("Listando usuários...");
 
-        Response resp = given()
-                .get("/usuarios");
+        Response resp = flow.list();
 
-        System.out.println("[POSITIVE] Status lista: " + resp.getStatusCode());
+        LOG.debug("Status lista: {}", resp.getStatusCode());
 
         assertEquals(200, resp.getStatusCode(), 
                 "Lista deve retornar 200. Obtido: " + resp.getStatusCode());
 
         // Lista pode estar vazia, mas status deve ser 200
-        Object usuarios = resp.jsonPath().get("usuarios");
-        System.out.println("[POSITIVE] Usuários encontrados: " + 
-                (usuarios != null ? usuarios.toString() : "null"));
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Usuários encontrados: {}", (Object) resp.jsonPath().get("usuarios"));
+        }
     }
 
     @Test
     @Order(4)
     @DisplayName("✅ UPDATE usuário existente")
+    @LatencyBudget(p = 95, millis = 500)
     public void updateUser_successful() {
         if (createdUserId == null || token == null) {
-            System.out.println("[POSITIVE] Sem ID ou token, pulando UPDATE");
+            LOG.warn("Sem ID ou token, pulando UPDATE");
             return;
         }
 
-        String email = gerarEmailUnico("positive-update");
-        System.out.println("[POSITIVE] Atualizando ID: " + createdUserId);
+        String email = TestIdentity.email("positive-update");
+        LOG.debug("Atualizando ID: {}", createdUserId);
 
-        String json = """
-                {
-                  "nome": "Usuário Atualizado",
-                  "email": "%s",
-                  "password": "NovaSenha123",
-                  "administrador": "false"
-                }
-                """.formatted(email);
+        Response resp = flow.update(createdUserId, email);
 
-        Response resp = given()
-                .contentType(ContentType.JSON)
-                .header("Authorization", "Bearer " + token)
-                .body(json)
-                .put("/usuarios/" + createdUserId);
-
-        System.out.println("[POSITIVE] Status UPDATE: " + resp.getStatusCode());
-        System.out.println("[POSITIVE] Mensagem: " + resp.jsonPath().getString("message"));
+        String message = resp.jsonPath().getString("message");
+        LOG.debug("Status UPDATE: {} | Mensagem: {}", resp.getStatusCode(), message);
 
         assertEquals(200, resp.getStatusCode(), 
                 "UPDATE deve retornar 200. Obtido: " + resp.getStatusCode());
 
-        String message = resp.jsonPath().getString("message");
         assertTrue(message.contains("sucesso"), 
                 "Deve conter 'sucesso'. Obtido: " + message);
     }
@@ -182,24 +149,35 @@ public class UserApiPositiveTests {
     @DisplayName("✅ DELETE usuário criado")
     public void deleteUser_successful() {
         if (createdUserId == null || token == null) {
-            System.out.println("[POSITIVE] Sem ID ou token, pulando DELETE");
+            LOG.warn("Sem ID ou token, pulando DELETE");
             return;
         }
 
-        System.out.println("[POSITIVE] Deletando ID: " + createdUserId);
+        LOG.debug("Deletando ID: {}", createdUserId);
 
-        Response resp = given()
-                .header("Authorization", "Bearer " + token)
-                .delete("/usuarios/" + createdUserId);
+        Response resp = flow.delete(createdUserId);
 
-        System.out.println("[POSITIVE] Status DELETE: " + resp.getStatusCode());
-        System.out.println("[POSITIVE] Mensagem: " + resp.jsonPath().getString("message"));
+        String message = resp.jsonPath().getString("message");
+        LOG.debug("Status DELETE: {} | Mensagem: {}", resp.getStatusCode(), message);
 
         assertEquals(200, resp.getStatusCode(), 
                 "DELETE deve retornar 200. Obtido: " + resp.getStatusCode());
 
-        String message = resp.jsonPath().getString("message");
         assertTrue(message.contains("sucesso"), 
                 "Deve conter 'sucesso'. Obtido: " + message);
     }
+
+    @Test
+    @Order(6)
+    @DisplayName("✅ CREATE com token de usuário comum (cadastro é rota pública)")
+    public void createUser_asNonAdmin_successful(@AuthToken(Principal.NON_ADMIN) String nonAdminToken) {
+        assertNotNull(nonAdminToken, "Pool deveria ter o token do usuário comum");
+        assertNotEquals(token, nonAdminToken, "Cada principal tem o seu token");
+
+        Response resp = new UserCrudFlow(ApiConfig.requestSpec(), nonAdminToken)
+                .create(TestIdentity.email("positive-nonadmin"));
+
+        assertEquals(201, resp.getStatusCode(),
+                "Criação com usuário comum deve retornar 201. Obtido: " + resp.getStatusCode());
+    }
 }
@@ -0,0 +1,244 @@
+package com.carrefour.utils;
+
+import io.restassured.http.Headers;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limitador AIMD (aumento aditivo, redução multiplicativa) sobre um {@link TokenBucket}.
+ *
+ * Cada resposta saudável soma um pouco à taxa, de forma que, com o limitador
+ * saturado, ela cresce {@code increaseRpm} por segundo. Um 429, um 5xx ou um pico de
+ * latência (acima de {@code spikeFactor} × a média móvel e do piso em ms) multiplica a
+ * taxa por {@code decrease}; reduções seguidas só valem depois de um intervalo, para
+ * que uma rajada de erros simultâneos conte como um único sinal.
+ *
+ * O servidor também pode mandar parar: {@code Retry-After} (segundos ou data HTTP) e
+ * {@code X-RateLimit-Remaining: 0} com {@code X-RateLimit-Reset} pausam o bucket até o
+ * instante pedido. Com {@code X-RateLimit-Remaining} e {@code X-RateLimit-Reset} a taxa
+ * também não passa do que resta da janela até o reset.
+ */
+public final class AdaptiveRateLimiter {
+
+    /** Peso da última amostra na média móvel de latência. */
+    private static final double EWMA_WEIGHT = 0.1;
+    /** Amostras antes de a latência poder disparar uma redução. */
+    private static final int MIN_LATENCY_SAMPLES = 20;
+    private static final long DECREASE_COOLDOWN_NANOS = TimeUnit.SECONDS.toNanos(1);
+    /** {@code X-RateLimit-Reset} acima disso é epoch em segundos; abaixo, segundos até o reset. */
+    private static final long EPOCH_SECONDS_THRESHOLD = 1_000_000_000L;
+
+    private final TokenBucket bucket;
+    private final double minPerSecond;
+    private final double maxPerSecond;
+    private final double increasePerSecond;
+    private final double decreaseFactor;
+    private final double spikeFactor;
+    private final long spikeFloorNanos;
+
+    private final LongAdder decreases = new LongAdder();
+    private final LongAdder pauses = new LongAdder();
+
+    // Estado AIMD, protegido pelo monitor da instância (uma atualização curta por resposta)
+    private double perSecond;
+    private double latencyEwmaNanos;
+    private long latencySamples;
+    private long lastDecreaseNanos = System.nanoTime() - DECREASE_COOLDOWN_NANOS;
+    private double windowCapPerSecond = Double.MAX_VALUE;
+    private long windowCapUntilNanos;
+
+    /**
+     * @param initialRpm  taxa inicial, em requisições por minuto
+     * @param minRpm      piso da taxa
+     * @param maxRpm      teto da taxa
+     * @param burst       rajada do bucket
+     * @param increaseRpm quanto a taxa sobe por segundo de respostas saudáveis
+     * @param decrease    fator aplicado à taxa a cada sinal de sobrecarga (0 &lt; x &lt; 1)
+     * @param spikeFactor latência acima de {@code spikeFactor} × a média móvel é um pico
+     * @param spikeFloor  latência abaixo disso nunca é pico
+     */
+    public AdaptiveRateLimiter(double initialRpm, double minRpm, double maxRpm, int burst, double increaseRpm,
+                               double decrease, double spikeFactor, Duration spikeFloor) {
+        this(initialRpm, minRpm, maxRpm, burst, increaseRpm, decrease, spikeFactor, spikeFloor, null);
+    }
+
+    /**
+     * Como o construtor acima, com o TAT do bucket em {@code cell} (ex.: a célula do
+     * {@link SharedState}, comum a todas as JVMs); {@code null} usa uma célula local.
+     * Cada JVM adapta a própria taxa, mas as permissões saem de uma única linha do tempo.
+     */
+    public AdaptiveRateLimiter(double initialRpm, double minRpm, double maxRpm, int burst, double increaseRpm,
+                               double decrease, double spikeFactor, Duration spikeFloor, TokenBucket.Cell cell) {
+        if (minRpm <= 0 || minRpm > maxRpm) {
+            throw new IllegalArgumentException("Faixa inválida: " + minRpm + ".." + maxRpm + " req/min");
+        }
+        if (decrease <= 0 || decrease >= 1) {
+            throw new IllegalArgumentException("decrease deve estar entre 0 e 1: " + decrease);
+        }
+        this.minPerSecond = minRpm / 60.0;
+        this.maxPerSecond = maxRpm / 60.0;
+        this.increasePerSecond = increaseRpm / 60.0;
+        this.decreaseFactor = decrease;
+        this.spikeFactor = spikeFactor;
+        this.spikeFloorNanos = spikeFloor.toNanos();
+        this.perSecond = clamp(initialRpm / 60.0, System.nanoTime());
+        this.bucket = cell != null ? new TokenBucket(perSecond, burst, cell) : new TokenBucket(perSecond, burst);
+    }
+
+    /** Bloqueia até a próxima permissão (ver {@link TokenBucket#acquire()}). */
+    public void acquire() {
+        bucket.acquire();
+    }
+
+    public boolean tryAcquire(Duration timeout) {
+        return bucket.tryAcquire(timeout);
+    }
+
+    /** Reserva a próxima permissão sem esperar; devolve quantos ns faltam para usá-la. */
+    public long reserve() {
+        return bucket.reserve(Long.MAX_VALUE);
+    }
+
+    /**
+     * Ajusta a taxa a partir de uma resposta.
+     *
+     * @param status       status HTTP
+     * @param headers      cabeçalhos da resposta (pode ser {@code null})
+     * @param latencyNanos duração da requisição, sem a espera no limitador
+     */
+    public void onResponse(int status, Headers headers, long latencyNanos) {
+        long now = System.nanoTime();
+        boolean paused = headers != null && applyServerHints(headers, now);
+        boolean overloaded = status == 429 || status >= 500;
+        synchronized (this) {
+            boolean spike = !overloaded && isLatencySpike(latencyNanos);
+            if (overloaded || spike || paused) {
+                if (now - lastDecreaseNanos >= DECREASE_COOLDOWN_NANOS) {
+                    lastDecreaseNanos = now;
+                    perSecond = clamp(perSecond * decreaseFactor, now);
+                    decreases.increment();
+                }
+            } else {
+                // +increasePerSecond a cada perSecond respostas, i.e. por segundo com o limitador saturado
+                perSecond = clamp(perSecond + increasePerSecond / perSecond, now);
+                latencyEwmaNanos = latencySamples == 0 ? latencyNanos
+                        : latencyEwmaNanos + EWMA_WEIGHT * (latencyNanos - latencyEwmaNanos);
+                latencySamples++;
+            }
+            bucket.setRate(perSecond);
+        }
+    }
+
+    /** Falha de I/O (sem resposta) conta como sobrecarga. */
+    public void onFailure() {
+        onResponse(503, null, 0L);
+    }
+
+    /** Taxa atual, em requisições por minuto. */
+    public double currentRpm() {
+        return bucket.permitsPerSecond() * 60.0;
+    }
+
+    /** Quantas vezes a taxa foi reduzida. */
+    public long decreases() {
+        return decreases.sum();
+    }
+
+    /** Quantas vezes o servidor pediu uma pausa (Retry-After / X-RateLimit-*). */
+    public long pauses() {
+        return pauses.sum();
+    }
+
+    public String summary() {
+        if (minPerSecond == maxPerSecond) {
+            // Faixa de um valor só: não há o que reduzir; pausa só aparece se houve
+            String fixed = String.format("taxa: %.0f req/min (fixo)", currentRpm());
+            return pauses() > 0 ? fixed + ", pausas pedidas pela API: " + pauses() : fixed;
+        }
+        return String.format("taxa: %.0f req/min (faixa %.0f–%.0f), reduções: %d, pausas pedidas pela API: %d",
+                currentRpm(), minPerSecond * 60, maxPerSecond * 60, decreases(), pauses());
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════════
+    // SINAIS DO SERVIDOR
+    // ═══════════════════════════════════════════════════════════════════════════
+    /** Aplica Retry-After e X-RateLimit-*; devolve {@code true} se o servidor pediu pausa. */
+    private boolean applyServerHints(Headers headers, long now) {
+        long retryAfterNanos = parseRetryAfter(headers.getValue("Retry-After"));
+        Long remaining = parseLong(headers.getValue("X-RateLimit-Remaining"));
+        long resetNanos = parseReset(headers.getValue("X-RateLimit-Reset"));
+
+        if (resetNanos > 0 && remaining != null && remaining > 0) {
+            // Até o reset, nunca mais rápido do que o restante da janela permite
+            synchronized (this) {
+                windowCapPerSecond = remaining / (resetNanos / 1e9);
+                windowCapUntilNanos = now + resetNanos;
+                perSecond = clamp(perSecond, now);
+                bucket.setRate(perSecond);
+            }
+        }
+        long pauseNanos = Math.max(retryAfterNanos, remaining != null && remaining == 0 ? resetNanos : 0L);
+        if (pauseNanos <= 0) {
+            return false;
+        }
+        bucket.pause(pauseNanos);
+        pauses.increment();
+        return true;
+    }
+
+    private boolean isLatencySpike(long latencyNanos) {
+        return latencySamples >= MIN_LATENCY_SAMPLES
+                && latencyNanos > spikeFloorNanos
+                && latencyNanos > spikeFactor * latencyEwmaNanos;
+    }
+
+    /** {@code Retry-After} em segundos ou como data HTTP; 0 se ausente ou ilegível. */
+    static long parseRetryAfter(String value) {
+        if (value == null || value.isBlank()) {
+            return 0L;
+        }
+        Long seconds = parseLong(value);
+        if (seconds != null) {
+            return TimeUnit.SECONDS.toNanos(Math.max(0L, seconds));
+        }
+        try {
+            ZonedDateTime at = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+            return Math.max(0L, TimeUnit.MILLISECONDS.toNanos(at.toInstant().toEpochMilli() - System.currentTimeMillis()));
+        } catch (DateTimeParseException e) {
+            return 0L;
+        }
+    }
+
+    /** {@code X-RateLimit-Reset} como segundos até o reset ou epoch em segundos; 0 se ausente. */
+    static long parseReset(String value) {
+        Long reset = parseLong(value);
+        if (reset == null || reset <= 0) {
+            return 0L;
+        }
+        long seconds = reset > EPOCH_SECONDS_THRESHOLD
+                ? reset - TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis())
+                : reset;
+        return TimeUnit.SECONDS.toNanos(Math.max(0L, seconds));
+    }
+
+    private static Long parseLong(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private double clamp(double value, long now) {
+        double ceiling = now - windowCapUntilNanos < 0 ? Math.min(maxPerSecond, windowCapPerSecond) : maxPerSecond;
+        return Math.max(minPerSecond, Math.min(ceiling, value));
+    }
+}
@@ -0,0 +1,108 @@
+package com.carrefour.utils;
+
+import com.carrefour.server.ServerestStandIn;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import io.restassured.specification.RequestSpecification;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Define contra qual API a suíte roda.
+ *
+ * <ul>
+ *   <li>{@code -Dapi.target=live} (padrão) – https://serverest.dev</li>
+ *   <li>{@code -Dapi.target=local} – stand-in em processo ({@link ServerestStandIn}), sem rede</li>
+ *   <li>{@code -Dapi.baseUri=...} – qualquer outro host (ex.: staging); tem precedência sobre o alvo</li>
+ * </ul>
+ *
+ * Com {@code -Dcassette.mode=replay} o alvo só escolhe o cassete ({@link Cassette}); nenhuma
+ * requisição sai da JVM e o stand-in não é iniciado.
+ */
+public final class ApiConfig {
+
+    public static final String LIVE_BASE_URI = "https://serverest.dev";
+    /** Host fictício usado no lugar do stand-in quando as respostas vêm do cassete. */
+    private static final String REPLAY_BASE_URI = "http://serverest.replay";
+
+    private static final String TARGET = System.getProperty("api.target", "live");
+    private static final String BASE_URI_OVERRIDE = System.getProperty("api.baseUri");
+    private static final Log HTTP_LOG = Log.get("HTTP");
+
+    private ApiConfig() {
+        // utilitário – não pode ser instanciado
+    }
+
+    /** {@code true} quando os testes usam o stand-in em processo. */
+    public static boolean isLocal() {
+        return BASE_URI_OVERRIDE == null && "local".equalsIgnoreCase(TARGET);
+    }
+
+    /**
+     * Nome curto do alvo para arquivos por ambiente: {@code local} ou host[_porta]
+     * (ex.: {@code serverest.dev}). Não sobe o stand-in.
+     */
+    public static String targetKey() {
+        if (isLocal()) {
+            return "local";
+        }
+        URI uri = URI.create(baseUri());
+        return (uri.getHost() + (uri.getPort() > 0 ? "_" + uri.getPort() : "")).replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    /** {@code true} quando o stand-in precisa estar no ar: alvo local e sem reprodução de cassete. */
+    public static boolean needsStandIn() {
+        return isLocal() && !Cassette.isReplay();
+    }
+
+    /** URI base da API alvo; no modo local sobe o stand-in na primeira chamada. */
+    public static String baseUri() {
+        if (BASE_URI_OVERRIDE != null) {
+            return BASE_URI_OVERRIDE;
+        }
+        if (!isLocal()) {
+            return LIVE_BASE_URI;
+        }
+        return Cassette.isReplay() ? REPLAY_BASE_URI : ServerestStandIn.shared().baseUri();
+    }
+
+    /**
+     * Especificação base para as requisições de uma classe de teste.
+     * Substitui o {@code RestAssured.baseURI} global, que não é seguro com testes em paralelo,
+     * e direciona tudo para o pool de conexões do {@link HttpClientPool}, passando antes pelo
+     * {@link RateLimiter}. Cada resposta é validada pelo {@link SchemaValidator}, os usuários
+     * criados ficam anotados no {@link ResourceLedger}, a latência de cada chamada no
+     * {@link LatencyRecorder} e, se ligado, o {@link Cassette} grava ou reproduz as respostas.
+     */
+    public static RequestSpecification requestSpec() {
+        return new RequestSpecBuilder()
+                .setBaseUri(baseUri())
+                .setConfig(HttpClientPool.config())
+                .addFilter(RateLimiter.filter())
+                .addFilter(SchemaValidator.filter())
+                .addFilter(FlightEvents.filter())
+                .addFilter(LatencyRecorder.filter())
+                .addFilter(HttpClientPool.releaseConnectionFilter())
+                .addFilter(ResourceLedger.filter())
+                .addFilter(ApiConfig::logRequest)
+                .addFilter(Cassette.shared().filter())
+                .build();
+    }
+
+    /** Uma linha DEBUG por requisição (método, caminho, status e duração); desligado por padrão. */
+    private static Response logRequest(FilterableRequestSpecification requestSpec,
+                                       FilterableResponseSpecification responseSpec, FilterContext ctx) {
+        if (!HTTP_LOG.isDebugEnabled()) {
+            return ctx.next(requestSpec, responseSpec);
+        }
+        long start = System.nanoTime();
+        Response response = ctx.next(requestSpec, responseSpec);
+        HTTP_LOG.debug("{} {} -> {} ({} ms)", requestSpec.getMethod(), requestSpec.getURI(), response.getStatusCode(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return response;
+    }
+}
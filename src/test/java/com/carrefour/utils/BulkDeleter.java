@@ -0,0 +1,261 @@
+package com.carrefour.utils;
+
+import io.restassured.RestAssured;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Remove em lote os usuários criados pelos testes.
+ *
+ * Os DELETEs saem em paralelo, com no máximo {@code cleanup.concurrency} em voo,
+ * cada um passando pelo {@link RateLimiter}. Falhas transitórias (5xx, 429 ou erro
+ * de I/O) são repetidas com backoff exponencial; qualquer outro status, ou uma
+ * resposta fora do contrato no {@link SchemaValidator} estrito, conta como falha
+ * definitiva. O tempo de limpeza passa a depender da concorrência, e não da
+ * quantidade de usuários.
+ *
+ * Com o {@link UsersApiClient} ({@link #deleteAll(UsersApiClient, String, Collection)})
+ * não há threads dedicadas: cada uma das {@code cleanup.concurrency} filas é uma cadeia
+ * de futures, e o backoff é agendado em vez de dormir.
+ *
+ * Configuração via system properties:
+ * <ul>
+ *   <li>{@code cleanup.concurrency} – DELETEs simultâneos (padrão 8)</li>
+ *   <li>{@code cleanup.maxAttempts} – tentativas por usuário (padrão 3)</li>
+ *   <li>{@code cleanup.backoffMs} – espera antes da 2ª tentativa, dobrando a cada nova (padrão 200)</li>
+ * </ul>
+ */
+public final class BulkDeleter {
+
+    private static final Log LOG = Log.get("CLEANUP");
+
+    private static final BulkDeleter DEFAULT = new BulkDeleter(
+            Integer.getInteger("cleanup.concurrency", 8),
+            Integer.getInteger("cleanup.maxAttempts", 3),
+            Long.getLong("cleanup.backoffMs", 200L));
+
+    private final int concurrency;
+    private final int maxAttempts;
+    private final long backoffMs;
+
+    public BulkDeleter(int concurrency, int maxAttempts, long backoffMs) {
+        if (concurrency < 1 || maxAttempts < 1 || backoffMs < 0) {
+            throw new IllegalArgumentException("concurrency e maxAttempts devem ser >= 1 e backoffMs >= 0");
+        }
+        this.concurrency = concurrency;
+        this.maxAttempts = maxAttempts;
+        this.backoffMs = backoffMs;
+    }
+
+    /** Instância configurada pelas system properties {@code cleanup.*}. */
+    public static BulkDeleter defaults() {
+        return DEFAULT;
+    }
+
+    /**
+     * Apaga todos os {@code ids} e devolve o resumo. O token é opcional: a Serverest
+     * aceita DELETE sem autenticação.
+     */
+    public Summary deleteAll(RequestSpecification spec, String token, Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return new Summary(0, List.of(), Duration.ZERO);
+        }
+        FlightEvents.Cleanup event = new FlightEvents.Cleanup();
+        event.begin();
+        long start = System.nanoTime();
+
+        AtomicInteger deleted = new AtomicInteger();
+        Queue<String> failed = new ConcurrentLinkedQueue<>();
+        AtomicInteger threadSeq = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(concurrency, ids.size()), r -> {
+            Thread thread = new Thread(r, "bulk-delete-" + threadSeq.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            CompletableFuture<?>[] tasks = ids.stream()
+                    .map(id -> CompletableFuture.runAsync(() -> {
+                        if (deleteWithRetry(spec, token, id)) {
+                            deleted.incrementAndGet();
+                        } else {
+                            failed.add(id);
+                        }
+                    }, executor))
+                    .toArray(CompletableFuture[]::new);
+            CompletableFuture.allOf(tasks).join();
+        } finally {
+            executor.shutdownNow();
+        }
+        return summarize(event, "RestAssured", ids.size(), deleted.get(), failed, start);
+    }
+
+    /**
+     * Como {@link #deleteAll(RequestSpecification, String, Collection)}, pelo cliente
+     * assíncrono: {@code concurrency} filas encadeadas, sem pool de threads próprio.
+     */
+    public Summary deleteAll(UsersApiClient client, String token, Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return new Summary(0, List.of(), Duration.ZERO);
+        }
+        FlightEvents.Cleanup event = new FlightEvents.Cleanup();
+        event.begin();
+        long start = System.nanoTime();
+
+        AtomicInteger deleted = new AtomicInteger();
+        Queue<String> failed = new ConcurrentLinkedQueue<>();
+        Queue<String> remaining = new ConcurrentLinkedQueue<>(ids);
+        CompletableFuture<?>[] lanes = new CompletableFuture<?>[Math.min(concurrency, ids.size())];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = drain(client, token, remaining, deleted, failed);
+        }
+        CompletableFuture.allOf(lanes).join();
+        return summarize(event, "java.net.http", ids.size(), deleted.get(), failed, start);
+    }
+
+    private static Summary summarize(FlightEvents.Cleanup event, String client, int ids, int deleted,
+                                     Queue<String> failed, long startNanos) {
+        Summary summary = new Summary(deleted, List.copyOf(failed), Duration.ofNanos(System.nanoTime() - startNanos));
+        Metrics metrics = Metrics.shared();
+        metrics.counter("carrefour_cleanup_deleted_total", "Usuários removidos pela limpeza em lote", "client", client)
+                .add(summary.deleted());
+        metrics.counter("carrefour_cleanup_failed_total", "Usuários que a limpeza em lote não removeu", "client", client)
+                .add(summary.failed());
+        metrics.histogram("carrefour_cleanup_duration_seconds", "Duração de cada limpeza em lote",
+                Metrics.SECONDS_BUCKETS, "client", client).observeNanos(summary.elapsed().toNanos());
+        event.end();
+        if (event.shouldCommit()) {
+            event.ids = ids;
+            event.deleted = summary.deleted();
+            event.failed = summary.failed();
+            event.client = client;
+            event.commit();
+        }
+        return summary;
+    }
+
+    /** Uma fila: apaga o próximo ID e, ao terminar, encadeia o seguinte. */
+    private CompletableFuture<Void> drain(UsersApiClient client, String token, Queue<String> remaining,
+                                          AtomicInteger deleted, Queue<String> failed) {
+        String id = remaining.poll();
+        if (id == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return deleteWithRetry(client, token, id, 1)
+                .thenCompose(ok -> {
+                    if (ok) {
+                        deleted.incrementAndGet();
+                    } else {
+                        failed.add(id);
+                    }
+                    return drain(client, token, remaining, deleted, failed);
+                });
+    }
+
+    private CompletableFuture<Boolean> deleteWithRetry(UsersApiClient client, String token, String id, int attempt) {
+        return client.delete(id, token)
+                .handle((resp, error) -> {
+                    if (error == null && resp.status() == 200) {
+                        return CompletableFuture.completedFuture(true);
+                    }
+                    if (error == null && !isTransient(resp.status())) {
+                        LOG.warn("Falha ao remover: ID {} (status: {})", id, resp.status());
+                        return CompletableFuture.completedFuture(false);
+                    }
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error;
+                    if (cause instanceof AssertionError violation) {
+                        // contrato violado (schema.validation=strict): repetir não muda a resposta
+                        LOG.warn("Falha ao remover: ID {} ({})", id, violation.getMessage());
+                        return CompletableFuture.completedFuture(false);
+                    }
+                    if (attempt >= maxAttempts) {
+                        LOG.warn("Falha ao remover após {} tentativas: ID {}", maxAttempts, id);
+                        return CompletableFuture.completedFuture(false);
+                    }
+                    // erro de I/O ou status transitório: tenta de novo depois do backoff
+                    Executor later = CompletableFuture.delayedExecutor(backoffDelayMs(attempt + 1), TimeUnit.MILLISECONDS);
+                    return CompletableFuture.supplyAsync(() -> null, later)
+                            .thenCompose(ignored -> deleteWithRetry(client, token, id, attempt + 1));
+                })
+                .thenCompose(next -> next);
+    }
+
+    private boolean deleteWithRetry(RequestSpecification spec, String token, String id) {
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            if (attempt > 1 && !backoff(attempt)) {
+                return false;
+            }
+            try {
+                RequestSpecification request = RestAssured.given(spec);
+                if (token != null) {
+                    request.header("Authorization", token.startsWith("Bearer ") ? token : "Bearer " + token);
+                }
+                Response resp = request.when().delete("/usuarios/{id}", id);
+                int status = resp.getStatusCode();
+                if (status == 200) {
+                    return true;
+                }
+                if (!isTransient(status)) {
+                    LOG.warn("Falha ao remover: ID {} (status: {})", id, status);
+                    return false;
+                }
+            } catch (RuntimeException e) {
+                // erro de I/O (conexão recusada, reset, timeout): tenta de novo
+            } catch (AssertionError violation) {
+                // contrato violado (schema.validation=strict): repetir não muda a resposta
+                LOG.warn("Falha ao remover: ID {} ({})", id, violation.getMessage());
+                return false;
+            }
+        }
+        LOG.warn("Falha ao remover após {} tentativas: ID {}", maxAttempts, id);
+        return false;
+    }
+
+    private static boolean isTransient(int status) {
+        return status == 429 || status >= 500;
+    }
+
+    /** Backoff exponencial com jitter; devolve false se a thread for interrompida. */
+    private boolean backoff(int attempt) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(backoffDelayMs(attempt));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /** Espera antes da tentativa {@code attempt} (a partir da 2ª), com jitter. */
+    private long backoffDelayMs(int attempt) {
+        long delay = backoffMs << Math.min(attempt - 2, 10);
+        return delay + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    /** Resultado de uma limpeza em lote. */
+    public record Summary(int deleted, List<String> failedIds, Duration elapsed) {
+
+        public int failed() {
+            return failedIds.size();
+        }
+
+        @Override
+        public String toString() {
+            return "removidos: " + deleted + ", falhas: " + failed() + ", tempo: " + elapsed.toMillis() + " ms";
+        }
+    }
+}
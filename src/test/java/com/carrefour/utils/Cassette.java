@@ -0,0 +1,300 @@
+package com.carrefour.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.filter.Filter;
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.io.OutputStreamWriter;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gravação e reprodução das respostas da API ("cassete").
+ *
+ * No modo {@code record} o {@link #filter()} deixa as requisições seguirem e guarda cada
+ * par requisição/resposta; no fim da suíte o {@code SuiteSessionListener} grava tudo em
+ * {@code <cassette.dir>/<alvo>.ndjson.gz}. No modo {@code replay} as respostas saem da
+ * memória, sem abrir socket nem subir o stand-in.
+ *
+ * A chave de cada gravação é {@code método + caminho + corpo}, normalizada: o corpo JSON
+ * é reescrito sem formatação, IDs de 16 caracteres viram {@code {id}} e os dados gerados pelo {@link TestIdentity} (e-mails,
+ * nomes, senhas) perdem o identificador da execução e a sequência. Chaves repetidas
+ * formam uma fila, servida na ordem da gravação; esgotada a fila, a última resposta
+ * se repete. A chave é procurada primeiro no escopo do teste atual ({@link #enterScope}),
+ * depois em qualquer escopo, para chamadas feitas por caches compartilhados. O índice do
+ * usuário de fixture no nome ({@code Fixture 0}, {@code Fixture 1}) também sai da chave:
+ * o pool empresta os usuários em outra ordem a cada execução.
+ *
+ * Configuração via system properties:
+ * <ul>
+ *   <li>{@code cassette.mode} – {@code off} (padrão), {@code record} ou {@code replay}</li>
+ *   <li>{@code cassette.dir} – diretório dos cassetes (padrão {@code src/test/resources/cassettes})</li>
+ * </ul>
+ */
+public final class Cassette {
+
+    public enum Mode { OFF, RECORD, REPLAY }
+
+    public static final Mode MODE = Mode.valueOf(System.getProperty("cassette.mode", "off").toUpperCase(Locale.ROOT));
+
+    private static final Path DIR = Path.of(System.getProperty("cassette.dir", "src/test/resources/cassettes"));
+    private static final Log LOG = Log.get("CASSETTE");
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /** IDs da Serverest: 16 caracteres alfanuméricos. */
+    private static final Pattern ID_SEGMENT = Pattern.compile("/[A-Za-z0-9]{16}(?=[/?]|$)");
+    /** Identificador da execução + sequência, como gerados pelo {@link TestIdentity}. */
+    private static final Pattern RUN_TOKEN = Pattern.compile(Pattern.quote(TestIdentity.runId()) + "-[0-9a-z]+");
+    /** Nome dos usuários do {@code UserFixturePool} ({@code Fixture <índice> <execução>-<seq>}). */
+    private static final Pattern FIXTURE_INDEX = Pattern.compile("\"Fixture [0-9]+ \\{run}");
+    /** Cabeçalhos que mudam a cada resposta ou dizem respeito só à conexão. */
+    private static final Set<String> VOLATILE_HEADERS =
+            Set.of("date", "connection", "keep-alive", "transfer-encoding", "content-length");
+
+    private static final ThreadLocal<String> SCOPE = ThreadLocal.withInitial(() -> "");
+
+    private static volatile Cassette shared;
+
+    private final Mode mode;
+    private final Path file;
+    private final AtomicLong sequence = new AtomicLong();
+    private final ConcurrentLinkedQueue<Entry> recorded = new ConcurrentLinkedQueue<>();
+    private final Map<String, Playback> byScopedKey = new LinkedHashMap<>();
+    private final Map<String, Playback> byKey = new LinkedHashMap<>();
+
+    public Cassette(Mode mode, Path file) {
+        this.mode = mode;
+        this.file = file;
+        if (mode == Mode.REPLAY) {
+            load();
+        }
+    }
+
+    /** Cassete da suíte para o alvo atual, no modo de {@code cassette.mode}. */
+    public static Cassette shared() {
+        Cassette cassette = shared;
+        if (cassette == null) {
+            synchronized (Cassette.class) {
+                cassette = shared;
+                if (cassette == null) {
+                    cassette = new Cassette(MODE, DIR.resolve(ApiConfig.targetKey() + ".ndjson.gz"));
+                    shared = cassette;
+                }
+            }
+        }
+        return cassette;
+    }
+
+    /** {@code true} quando a suíte roda só com respostas gravadas. */
+    public static boolean isReplay() {
+        return MODE == Mode.REPLAY;
+    }
+
+    /**
+     * Define o escopo (ex.: {@code Classe#metodo}) das requisições feitas por esta thread
+     * e devolve o anterior, para ser restaurado com {@link #restoreScope(String)}.
+     */
+    public static String enterScope(String scope) {
+        String previous = SCOPE.get();
+        SCOPE.set(scope);
+        return previous;
+    }
+
+    public static void restoreScope(String previous) {
+        SCOPE.set(previous);
+    }
+
+    /**
+     * Chave normalizada de uma requisição: {@code POST /usuarios {"email":"c-{run}@qa.com"}}.
+     * O host fica de fora, já que a porta do stand-in muda a cada execução.
+     */
+    public static String key(String method, String uri, String body) {
+        URI parsed = URI.create(uri);
+        String path = parsed.getRawPath() + (parsed.getRawQuery() != null ? "?" + parsed.getRawQuery() : "");
+        String key = method + " " + ID_SEGMENT.matcher(path).replaceAll("/{id}");
+        if (body != null && !body.isEmpty()) {
+            key += " " + canonical(body);
+        }
+        key = RUN_TOKEN.matcher(key).replaceAll("{run}");
+        return FIXTURE_INDEX.matcher(key).replaceAll("\"Fixture {n} {run}");
+    }
+
+    /**
+     * JSON reescrito pelo Jackson, sem a formatação de quem montou o corpo; os espaços
+     * dentro das strings ficam ({@code "   "} e {@code ""} são requisições diferentes).
+     * Corpo que não é JSON entra como veio.
+     */
+    private static String canonical(String body) {
+        try {
+            return MAPPER.readTree(body).toString();
+        } catch (IOException e) {
+            return body;
+        }
+    }
+
+    /** Filtro do cassete; deve ser o último da cadeia, logo antes da rede. */
+    public Filter filter() {
+        return (requestSpec, responseSpec, ctx) -> switch (mode) {
+            case OFF -> ctx.next(requestSpec, responseSpec);
+            case RECORD -> {
+                Response response = ctx.next(requestSpec, responseSpec);
+                record(SCOPE.get(), keyOf(requestSpec), response);
+                yield response;
+            }
+            case REPLAY -> replay(SCOPE.get(), keyOf(requestSpec));
+        };
+    }
+
+    /** Grava o cassete (modo {@code record}); devolve quantas respostas foram gravadas. */
+    public int save() {
+        List<Entry> entries = new ArrayList<>(recorded);
+        // Ordem estável entre execuções: por escopo e chave; dentro da chave, ordem de chegada
+        entries.sort(Comparator.comparing(Entry::scope).thenComparing(Entry::key).thenComparingLong(Entry::sequence));
+        try {
+            Files.createDirectories(file.getParent());
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file));
+                 Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+                for (Entry entry : entries) {
+                    writer.write(MAPPER.writeValueAsString(entry.toJson()));
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar o cassete " + file, e);
+        }
+        return entries.size();
+    }
+
+    public Mode mode() {
+        return mode;
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════════
+    // GRAVAÇÃO
+    // ═══════════════════════════════════════════════════════════════════════════
+    private void record(String scope, String key, Response response) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (Header header : response.getHeaders()) {
+            if (!VOLATILE_HEADERS.contains(header.getName().toLowerCase(Locale.ROOT))) {
+                headers.put(header.getName(), header.getValue());
+            }
+        }
+        recorded.add(new Entry(scope, key, sequence.getAndIncrement(), response.getStatusCode(),
+                response.getContentType(), headers, response.asString()));
+    }
+
+    private static String keyOf(FilterableRequestSpecification requestSpec) {
+        Object body = requestSpec.getBody();
+        String text = body == null ? null
+                : body instanceof byte[] bytes ? new String(bytes, StandardCharsets.UTF_8)
+                : body.toString();
+        return key(requestSpec.getMethod(), requestSpec.getURI(), text);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════════
+    // REPRODUÇÃO
+    // ═══════════════════════════════════════════════════════════════════════════
+    private void load() {
+        if (!Files.exists(file)) {
+            throw new IllegalStateException("Cassete não encontrado: " + file + " (grave com -Dcassette.mode=record)");
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Entry entry = Entry.fromJson(MAPPER.readTree(line));
+                byScopedKey.computeIfAbsent(entry.scope() + " " + entry.key(), k -> new Playback()).responses.add(entry);
+                byKey.computeIfAbsent(entry.key(), k -> new Playback()).responses.add(entry);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao ler o cassete " + file, e);
+        }
+        LOG.info("Reproduzindo {} chaves de {}", byKey.size(), file);
+    }
+
+    private Response replay(String scope, String key) {
+        Playback playback = byScopedKey.get(scope + " " + key);
+        if (playback == null) {
+            playback = byKey.get(key);
+        }
+        if (playback == null) {
+            throw new IllegalStateException("Requisição fora do cassete " + file + ": " + key);
+        }
+        Entry entry = playback.next();
+        List<Header> headers = new ArrayList<>();
+        entry.headers().forEach((name, value) -> headers.add(new Header(name, value)));
+        ResponseBuilder builder = new ResponseBuilder()
+                .setStatusCode(entry.status())
+                .setStatusLine("HTTP/1.1 " + entry.status())
+                .setHeaders(new Headers(headers))
+                .setBody(entry.body().getBytes(StandardCharsets.UTF_8));
+        if (entry.contentType() != null && !entry.contentType().isEmpty()) {
+            builder.setContentType(entry.contentType());
+        }
+        return builder.build();
+    }
+
+    /** Fila de respostas de uma chave; a última se repete quando a fila acaba. */
+    private static final class Playback {
+
+        private final List<Entry> responses = new ArrayList<>();
+        private final AtomicInteger cursor = new AtomicInteger();
+
+        Entry next() {
+            return responses.get(Math.min(cursor.getAndIncrement(), responses.size() - 1));
+        }
+    }
+
+    private record Entry(String scope, String key, long sequence, int status, String contentType,
+                         Map<String, String> headers, String body) {
+
+        ObjectNode toJson() {
+            ObjectNode json = MAPPER.createObjectNode();
+            json.put("scope", scope);
+            json.put("key", key);
+            json.put("status", status);
+            json.put("contentType", contentType);
+            headers.forEach(json.putObject("headers")::put);
+            json.put("body", body);
+            return json;
+        }
+
+        static Entry fromJson(JsonNode json) {
+            Map<String, String> headers = new LinkedHashMap<>();
+            json.path("headers").fields().forEachRemaining(field -> headers.put(field.getKey(), field.getValue().asText()));
+            return new Entry(json.path("scope").asText(), json.path("key").asText(), 0L, json.path("status").asInt(),
+                    json.path("contentType").asText(null), headers, json.path("body").asText());
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.carrefour.utils;
+
+import io.restassured.filter.Filter;
+import io.restassured.response.Response;
+import jdk.jfr.Category;
+import jdk.jfr.Configuration;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Eventos do JDK Flight Recorder da suíte, na categoria "Carrefour API".
+ *
+ * Com uma gravação aberta (perfil {@code jfr}, ou {@code jcmd <pid> JFR.start}) dá para
+ * ver no JDK Mission Control para onde foi o tempo: rede ({@link HttpRequest}), espera no
+ * {@link RateLimiter} ({@link RateLimiterWait}), login ({@link TokenAcquisition}) e
+ * limpeza em lote ({@link Cleanup}).
+ *
+ * Sem gravação o custo é praticamente zero: {@code shouldCommit()} vira {@code false}
+ * constante para o JIT, o evento não escapa do método e os campos (caminho com
+ * template, tamanho do corpo) nem chegam a ser calculados. Medido no
+ * {@code FlightEventsBenchmark}.
+ *
+ * Com {@code -Djfr.record=true} (perfil {@code jfr}) o {@code SuiteSessionListener} grava a
+ * suíte inteira, com as configurações {@code profile} do JDK, em
+ * {@code target/jfr/suite-<alvo>[-forkN]-<data>.jfr}. A gravação é aberta por código, e não
+ * com {@code -XX:StartFlightRecording}: no JDK 17 ela falha ao subir junto com o agente do
+ * AspectJ usado pelo Allure.
+ *
+ * Configuração via system properties:
+ * <ul>
+ *   <li>{@code jfr.record} – {@code true} grava um {@code .jfr} por execução (padrão {@code false})</li>
+ *   <li>{@code jfr.dir} – diretório das gravações (padrão {@code target/jfr})</li>
+ *   <li>{@code jfr.settings} – configuração do JFR: {@code profile} (padrão) ou {@code default}</li>
+ * </ul>
+ */
+public final class FlightEvents {
+
+    public static final boolean RECORD = Boolean.getBoolean("jfr.record");
+
+    private static final String CATEGORY = "Carrefour API";
+    private static final Path DIR = Path.of(System.getProperty("jfr.dir", "target/jfr"));
+    private static final String FORK = System.getProperty("test.fork");
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private static volatile Recording recording;
+
+    private FlightEvents() {
+        // utilitário – não pode ser instanciado
+    }
+
+    /**
+     * Filtro que emite um {@link HttpRequest} por requisição RestAssured. Fica depois do
+     * {@link RateLimiter#filter()}: a espera no limitador é um evento à parte.
+     */
+    public static Filter filter() {
+        return (requestSpec, responseSpec, ctx) -> {
+            HttpRequest event = new HttpRequest();
+            event.begin();
+            Response response = null;
+            try {
+                response = ctx.next(requestSpec, responseSpec);
+                return response;
+            } finally {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.method = requestSpec.getMethod();
+                    event.path = LatencyRecorder.templatedPath(requestSpec.getUserDefinedPath(), requestSpec.getURI());
+                    event.requestBytes = bodyLength(requestSpec.getBody());
+                    if (response != null) {
+                        event.status = response.getStatusCode();
+                        event.responseBytes = response.asByteArray().length;
+                    }
+                    event.client = "RestAssured";
+                    event.commit();
+                }
+            }
+        };
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════════
+    // GRAVAÇÃO DA SUÍTE
+    // ═══════════════════════════════════════════════════════════════════════════
+    /** Abre a gravação da suíte; não faz nada se já houver uma. */
+    public static synchronized void startRecording() {
+        if (recording != null) {
+            return;
+        }
+        try {
+            Recording started = new Recording(Configuration.getConfiguration(System.getProperty("jfr.settings", "profile")));
+            started.setName("carrefour-suite");
+            started.setToDisk(true);
+            started.start();
+            recording = started;
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("Falha ao iniciar a gravação JFR", e);
+        }
+    }
+
+    /**
+     * Encerra a gravação aberta por {@link #startRecording()} e a grava em {@code jfr.dir}.
+     *
+     * @return o arquivo gravado, ou {@code null} se não havia gravação
+     */
+    public static synchronized Path stopRecording() {
+        Recording current = recording;
+        if (current == null) {
+            return null;
+        }
+        recording = null;
+        String name = "suite-" + ApiConfig.targetKey() + (FORK != null ? "-fork" + FORK : "")
+                + "-" + STAMP.format(LocalDateTime.now()) + ".jfr";
+        Path file = DIR.resolve(name);
+        try (current) {
+            current.stop();
+            Files.createDirectories(DIR);
+            current.dump(file);
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar " + file, e);
+        }
+    }
+
+    private static long bodyLength(Object body) {
+        if (body == null) {
+            return 0L;
+        }
+        return body instanceof byte[] bytes ? bytes.length : body.toString().getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════════
+    // EVENTOS
+    // ═══════════════════════════════════════════════════════════════════════════
+    @Name("com.carrefour.HttpRequest")
+    @Label("Requisição HTTP")
+    @Description("Requisição à API, do envio até o corpo da resposta lido; status 0 = falha de I/O")
+    @Category({CATEGORY, "HTTP"})
+    @StackTrace(false)
+    public static final class HttpRequest extends Event {
+
+        @Label("Método")
+        public String method;
+
+        @Label("Caminho")
+        @Description("Caminho com template, ex.: /usuarios/{id}")
+        public String path;
+
+        @Label("Status")
+        public int status;
+
+        @Label("Bytes enviados")
+        @DataAmount
+        public long requestBytes;
+
+        @Label("Bytes recebidos")
+        @DataAmount
+        public long responseBytes;
+
+        @Label("Cliente")
+        @Description("RestAssured ou java.net.http (com a versão do protocolo)")
+        public String client;
+    }
+
+    @Name("com.carrefour.RateLimiterWait")
+    @Label("Espera no limitador")
+    @Description("Tempo até o RateLimiter liberar a requisição; esperas abaixo de 0,1 ms não são gravadas "
+            + "(@Threshold do evento; uma gravação pode trocá-lo)")
+    @Category({CATEGORY, "Limitador"})
+    @StackTrace(false)
+    @Threshold("100 us")
+    public static final class RateLimiterWait extends Event {
+
+        @Label("Taxa (req/min)")
+        public double rpm;
+
+        @Label("Assíncrona")
+        @Description("Espera agendada (UsersApiClient) em vez de thread parada")
+        public boolean async;
+    }
+
+    @Name("com.carrefour.TokenAcquisition")
+    @Label("Obtenção de token")
+    @Description("Login (ou leitura do token de outra JVM) feito pelo JwtProvider")
+    @Category({CATEGORY, "JWT"})
+    public static final class TokenAcquisition extends Event {
+
+        @Label("Usuário")
+        public String user;
+
+        @Label("Origem")
+        @Description("login ou shared (token gravado por outra JVM no SharedState)")
+        public String source;
+
+        @Label("Sucesso")
+        public boolean success;
+    }
+
+    @Name("com.carrefour.Cleanup")
+    @Label("Limpeza em lote")
+    @Description("Remoção de usuários pelo BulkDeleter")
+    @Category({CATEGORY, "Limpeza"})
+    public static final class Cleanup extends Event {
+
+        @Label("IDs")
+        public int ids;
+
+        @Label("Removidos")
+        public int deleted;
+
+        @Label("Falhas")
+        public int failed;
+
+        @Label("Cliente")
+        public String client;
+    }
+}
@@ -0,0 +1,135 @@
+package com.carrefour.utils;
+
+import io.restassured.config.HttpClientConfig;
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.filter.Filter;
+import io.restassured.response.Response;
+import org.apache.http.HttpHost;
+import org.apache.http.conn.ClientConnectionOperator;
+import org.apache.http.conn.ClientConnectionRequest;
+import org.apache.http.conn.OperatedClientConnection;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.DefaultClientConnectionOperator;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cliente HTTP único, com pool de conexões keep-alive, usado por todas as chamadas
+ * RestAssured (via {@link ApiConfig#requestSpec()}).
+ *
+ * Sem isso o RestAssured cria um cliente novo a cada requisição e paga um handshake
+ * TCP/TLS por chamada. Os contadores de conexões abertas e reaproveitadas são
+ * impressos ao final da suíte pelo {@code RunSummaryListener}.
+ *
+ * Configuração via system properties:
+ * <ul>
+ *   <li>{@code http.pool.maxTotal} – conexões no pool (padrão 64)</li>
+ *   <li>{@code http.pool.maxPerRoute} – conexões por host (padrão 32)</li>
+ *   <li>{@code http.pool.keepAliveMs} – tempo máximo de uma conexão ociosa (padrão 30000)</li>
+ * </ul>
+ */
+@SuppressWarnings("deprecation") // RestAssured 5 ainda exige o AbstractHttpClient do HttpClient 4.x
+public final class HttpClientPool {
+
+    private static final int MAX_TOTAL = Integer.getInteger("http.pool.maxTotal", 64);
+    private static final int MAX_PER_ROUTE = Integer.getInteger("http.pool.maxPerRoute", 32);
+    private static final long KEEP_ALIVE_MS = Long.getLong("http.pool.keepAliveMs", 30_000L);
+
+    private static final LongAdder LEASED = new LongAdder();
+    private static final LongAdder OPENED = new LongAdder();
+
+    private static final DefaultHttpClient CLIENT = newClient();
+
+    private static final RestAssuredConfig CONFIG = RestAssuredConfig.config()
+            .httpClient(HttpClientConfig.httpClientConfig()
+                    .reuseHttpClientInstance()
+                    .httpClientFactory(() -> CLIENT));
+
+    private HttpClientPool() {
+        // utilitário – não pode ser instanciado
+    }
+
+    /** Configuração RestAssured que direciona as requisições para o cliente compartilhado. */
+    public static RestAssuredConfig config() {
+        return CONFIG;
+    }
+
+    /**
+     * Filtro que lê o corpo de toda resposta assim que ela chega. O RestAssured só
+     * consome o corpo quando alguém o lê; testes que olham apenas o status deixariam
+     * a conexão presa fora do pool até o GC, forçando uma conexão nova por chamada.
+     */
+    public static Filter releaseConnectionFilter() {
+        return (requestSpec, responseSpec, ctx) -> {
+            Response response = ctx.next(requestSpec, responseSpec);
+            response.asByteArray();
+            return response;
+        };
+    }
+
+    /** Quantas vezes uma conexão foi pedida ao pool (≈ número de requisições). */
+    public static long connectionsLeased() {
+        return LEASED.sum();
+    }
+
+    /** Quantas conexões (e handshakes) foram efetivamente abertas. */
+    public static long connectionsOpened() {
+        return OPENED.sum();
+    }
+
+    /** Requisições que reaproveitaram uma conexão existente, economizando o handshake. */
+    public static long connectionsReused() {
+        return Math.max(0L, connectionsLeased() - connectionsOpened());
+    }
+
+    public static String summary() {
+        long leased = connectionsLeased();
+        long reused = connectionsReused();
+        long percent = leased == 0 ? 0 : reused * 100 / leased;
+        return "requisições: " + leased + ", conexões abertas: " + connectionsOpened()
+                + ", reaproveitadas: " + reused + " (" + percent + "%)";
+    }
+
+    private static DefaultHttpClient newClient() {
+        PoolingClientConnectionManager manager = new PoolingClientConnectionManager(
+                SchemeRegistryFactory.createDefault(), KEEP_ALIVE_MS, TimeUnit.MILLISECONDS) {
+
+            @Override
+            public ClientConnectionRequest requestConnection(HttpRoute route, Object state) {
+                LEASED.increment();
+                return super.requestConnection(route, state);
+            }
+
+            @Override
+            protected ClientConnectionOperator createConnectionOperator(SchemeRegistry registry) {
+                return new DefaultClientConnectionOperator(registry) {
+                    @Override
+                    public void openConnection(OperatedClientConnection conn, HttpHost target, InetAddress local,
+                                               HttpContext context, HttpParams params) throws IOException {
+                        OPENED.increment();
+                        super.openConnection(conn, target, local, context, params);
+                    }
+                };
+            }
+        };
+        manager.setMaxTotal(MAX_TOTAL);
+        manager.setDefaultMaxPerRoute(MAX_PER_ROUTE);
+
+        DefaultHttpClient client = new DefaultHttpClient(manager);
+        client.setKeepAliveStrategy((response, context) -> {
+            long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return serverKeepAlive > 0 ? Math.min(serverKeepAlive, KEEP_ALIVE_MS) : KEEP_ALIVE_MS;
+        });
+        return client;
+    }
+}
@@ -1,169 +1,265 @@
 package com.carrefour.utils;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.restassured.RestAssured;
+import io.restassured.path.json.JsonPath;
 import io.restassured.response.Response;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Classe responsável por obter e armazenar o token JWT.
- * Versão com logs detalhados para debug - Compatível com Java 19.
+ *
+ * A leitura do token em cache é uma simples leitura {@code volatile}, sem lock.
+ * A expiração vem do claim {@code exp} do próprio JWT e um agendador em background
+ * renova o token {@code jwt.refresh.margin.seconds} antes de expirar. Se várias
+ * threads encontrarem o token expirado ao mesmo tempo, todas aguardam o mesmo login.
+ *
+ * Com {@code -Dshared.state=true} o token também vai para o {@link SharedState}: a
+ * primeira JVM da máquina faz o login e os outros forks reaproveitam o token dela.
  */
 public class JwtProvider {
 
     // ═══════════════════════════════════════════════════════════════════════════
-    // CONFIGURAÇÕES DA API (ajuste as credenciais se necessário)
+    // CONFIGURAÇÕES DA API (credenciais vêm do TokenPool)
     // ═══════════════════════════════════════════════════════════════════════════
-    private static final String BASE_URI = "https://serverest.dev";
     private static final String LOGIN_ENDPOINT = "/login";
-    private static final String USER = "beltrano@qa.com.br";        // ← Teste outras se não funcionar
-    private static final String PASSWORD = "teste";            // ← Teste outras se não funcionar
+
+    // ═══════════════════════════════════════════════════════════════════════════
+    // CONFIGURAÇÕES DE RENOVAÇÃO
+    // ═══════════════════════════════════════════════════════════════════════════
+    /** Quanto tempo antes do {@code exp} o token é renovado em background. */
+    private static final long REFRESH_MARGIN_MS =
+            TimeUnit.SECONDS.toMillis(Long.getLong("jwt.refresh.margin.seconds", 60));
+    /** Validade assumida quando o token não traz {@code exp} (Serverest usa 600 s). */
+    private static final long FALLBACK_TTL_MS = TimeUnit.MINUTES.toMillis(10);
+    /** Nova tentativa após falha de renovação em background. */
+    private static final long RETRY_DELAY_MS = TimeUnit.SECONDS.toMillis(5);
+    /** Folga para nunca entregar um token prestes a expirar. */
+    private static final long EXPIRY_SKEW_MS = TimeUnit.SECONDS.toMillis(5);
+
+    private static final Log LOG = Log.get("JWT");
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ConcurrentMap<String, JwtProvider> PROVIDERS = new ConcurrentHashMap<>();
+    private static final ScheduledExecutorService REFRESHER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "jwt-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     // ═══════════════════════════════════════════════════════════════════════════
     // VARIÁVEIS DE ESTADO (cache do token)
     // ═══════════════════════════════════════════════════════════════════════════
-    private static String token;
-    private static long tokenAcquiredAt = 0; // epoch millis
+    private final String user;
+    private final String password;
+    private volatile CachedToken cached;
+    private final AtomicReference<CompletableFuture<CachedToken>> inFlight = new AtomicReference<>();
+    private volatile ScheduledFuture<?> scheduledRefresh;
 
-    private JwtProvider() {
-        // classe utilitária – não pode ser instanciada
+    private JwtProvider(String user, String password) {
+        this.user = user;
+        this.password = password;
     }
 
     // ═══════════════════════════════════════════════════════════════════════════
-    // MÉTODO PÚBLICO PRINCIPAL
+    // MÉTODOS PÚBLICOS
     // ═══════════════════════════════════════════════════════════════════════════
     /**
-     * Retorna um token válido. Se o token atual estiver expirado ou ainda não foi obtido,
-     * faz login na API e armazena o novo token.
+     * Provider (único por e-mail) para as credenciais informadas. O mesmo e-mail com
+     * outra senha é erro: o cache devolveria o token da primeira.
+     */
+    public static JwtProvider forCredentials(String user, String password) {
+        JwtProvider provider = PROVIDERS.computeIfAbsent(user, u -> new JwtProvider(u, password));
+        if (!provider.password.equals(password)) {
+            throw new IllegalArgumentException("Já existe um provider para " + user + " com outra senha");
+        }
+        return provider;
+    }
+
+    /**
+     * Retorna o token em cache (sem lock) ou, se expirado, aguarda o login em andamento.
      *
      * @return token JWT (string) ou null se falhar
      */
-    public static synchronized String getToken() {
-        System.out.println("🔑 [JWT] getToken() chamado");
-
-        // Verifica se já temos um token válido
-        if (token == null || isExpired()) {
-            System.out.println("🔄 [JWT] Token inválido/expirado. Fazendo login...");
-            token = loginAndGetToken();
-            if (token != null && !token.trim().isEmpty()) {
-                tokenAcquiredAt = System.currentTimeMillis();
-                System.out.println("✅ [JWT] Token armazenado com sucesso (cache por 30 min)");
-            } else {
-                System.out.println("❌ [JWT] Falha ao obter token! Retornando null");
-                token = null;
+    public String token() {
+        CachedToken current = cached;
+        if (current != null && !current.isExpired()) {
+            return current.value;
+        }
+        CachedToken refreshed = refresh().join();
+        return refreshed != null ? refreshed.value : null;
+    }
+
+    /**
+     * Inicia (ou reaproveita) o login deste usuário. Chamadas concorrentes recebem o
+     * mesmo future, então só uma requisição de login é feita por vez.
+     */
+    public CompletableFuture<CachedToken> refresh() {
+        while (true) {
+            CompletableFuture<CachedToken> running = inFlight.get();
+            if (running != null) {
+                return running;
+            }
+            CompletableFuture<CachedToken> mine = new CompletableFuture<>();
+            if (inFlight.compareAndSet(null, mine)) {
+                CachedToken token = null;
+                FlightEvents.TokenAcquisition event = new FlightEvents.TokenAcquisition();
+                boolean[] loggedIn = {false};
+                long startNanos = System.nanoTime();
+                event.begin();
+                try {
+                    SharedState shared = SharedState.shared();
+                    token = shared == null
+                            ? loginAndGetToken()
+                            : shared.token(ApiConfig.baseUri() + " " + user, JwtProvider::isFresh, () -> {
+                                loggedIn[0] = true;
+                                return loginAndGetToken();
+                            });
+                    if (token != null) {
+                        cached = token;
+                    }
+                } finally {
+                    event.end();
+                    String source = SharedState.ENABLED && !loggedIn[0] ? "shared" : "login";
+                    if (event.shouldCommit()) {
+                        event.user = user;
+                        event.source = source;
+                        event.success = token != null;
+                        event.commit();
+                    }
+                    Metrics.shared().counter("carrefour_token_refreshes_total", "Obtenções de token JWT",
+                            "user", user, "source", source, "result", token != null ? "ok" : "failed").inc();
+                    Metrics.shared().histogram("carrefour_token_refresh_duration_seconds", "Duração da obtenção de token",
+                            Metrics.SECONDS_BUCKETS, "source", source).observeNanos(System.nanoTime() - startNanos);
+                    scheduleRefresh(token);
+                    inFlight.set(null);
+                    mine.complete(token);
+                }
+                return mine;
             }
-        } else {
-            System.out.println("✅ [JWT] Usando token cacheado");
         }
+    }
 
-        // Log do token (primeiros 20 chars para não poluir o console)
-        if (token != null && token.length() > 20) {
-            System.out.println("🔑 [JWT] Token: " + token.substring(0, 20) + "...");
+    // ═══════════════════════════════════════════════════════════════════════════
+    // RENOVAÇÃO EM BACKGROUND
+    // ═══════════════════════════════════════════════════════════════════════════
+    private void scheduleRefresh(CachedToken token) {
+        long delayMs;
+        if (token != null) {
+            long remainingMs = token.expiresAtMillis - System.currentTimeMillis();
+            // Margem maior que a validade: renova na metade da vida do token
+            delayMs = Math.max(RETRY_DELAY_MS, Math.max(remainingMs - REFRESH_MARGIN_MS, remainingMs / 2));
         } else {
-            System.out.println("🔑 [JWT] Token: " + (token != null ? token : "NULL"));
+            CachedToken current = cached;
+            if (current == null || current.isExpired()) {
+                return; // nada a manter vivo; a próxima chamada a token() tenta de novo
+            }
+            delayMs = RETRY_DELAY_MS;
         }
-
-        return token;
+        ScheduledFuture<?> previous = scheduledRefresh;
+        if (previous != null) {
+            previous.cancel(false);
+        }
+        scheduledRefresh = REFRESHER.schedule(this::refresh, delayMs, TimeUnit.MILLISECONDS);
     }
 
     // ═══════════════════════════════════════════════════════════════════════════
-    // VERIFICAÇÃO DE EXPIRAÇÃO
+    // EXPIRAÇÃO (claim "exp" do JWT)
     // ═══════════════════════════════════════════════════════════════════════════
-    /** Verifica se o token já tem mais de 30 minutos. */
-    private static boolean isExpired() {
-        if (tokenAcquiredAt == 0) {
-            return true;
+    /** Token de outra JVM só serve se ainda estiver fora da margem de renovação. */
+    private static boolean isFresh(CachedToken token) {
+        return token.expiresAtMillis - System.currentTimeMillis() > REFRESH_MARGIN_MS;
+    }
+
+    /** Lê o claim {@code exp} (segundos desde epoch) do payload do JWT. */
+    static long expiresAtMillis(String token, long acquiredAtMillis) {
+        try {
+            String jwt = token.startsWith("Bearer ") ? token.substring("Bearer ".length()) : token;
+            String[] parts = jwt.split("\\.");
+            if (parts.length >= 2) {
+                byte[] payload = Base64.getUrlDecoder().decode(parts[1]);
+                JsonNode exp = MAPPER.readTree(new String(payload, StandardCharsets.UTF_8)).get("exp");
+                if (exp != null && exp.canConvertToLong()) {
+                    return TimeUnit.SECONDS.toMillis(exp.asLong());
+                }
+            }
+        } catch (Exception e) {
+            // payload ilegível: cai na validade padrão
         }
-        long elapsed = System.currentTimeMillis() - tokenAcquiredAt;
-        long minutesElapsed = TimeUnit.MILLISECONDS.toMinutes(elapsed);
-        boolean expired = minutesElapsed >= 30;
-        System.out.println("⏰ [JWT] Token tem " + minutesElapsed + " minutos. Expirado? " + expired);
-        return expired;
+        return acquiredAtMillis + FALLBACK_TTL_MS;
     }
 
     // ═══════════════════════════════════════════════════════════════════════════
     // MÉTODO PRINCIPAL: FAZ O LOGIN E EXTRAI O TOKEN
     // ═══════════════════════════════════════════════════════════════════════════
-    /** Faz a chamada de login e devolve o token. */
-    private static String loginAndGetToken() {
-        System.out.println("🌐 [JWT] Iniciando processo de login...");
-        System.out.println("📧 [JWT] Usuário: " + USER);
-        System.out.println("🔒 [JWT] Senha: " + PASSWORD.replaceAll(".", "*"));
-        System.out.println("🔗 [JWT] Endpoint: " + BASE_URI + LOGIN_ENDPOINT);
-
-        // 1️⃣ Preparar o payload de login (JSON manual - compatível com Java 8+)
-        String loginPayload = "{\"email\":\"" + USER + "\",\"password\":\"" + PASSWORD + "\"}";
-        System.out.println("📄 [JWT] Payload JSON: " + loginPayload);
+    /** Faz a chamada de login e devolve o token, ou null se falhar. */
+    private CachedToken loginAndGetToken() {
+        String loginPayload = "{\"email\":\"" + user + "\",\"password\":\"" + password + "\"}";
 
         try {
-            // 2️⃣ Fazer a requisição HTTP POST usando RestAssured
             Response response = RestAssured
-                    .given()
-                    .baseUri(BASE_URI)
+                    .given(ApiConfig.requestSpec())
                     .contentType("application/json")
                     .body(loginPayload)
                     .when()
                     .post(LOGIN_ENDPOINT);
 
-            // 3️⃣ Extrair informações da resposta
             int statusCode = response.getStatusCode();
-            String responseBody = response.asString();
-
-            // 4️⃣ Log detalhado da resposta
-            System.out.println("📊 [JWT] Status Code: " + statusCode);
-            System.out.println("📄 [JWT] Resposta completa:");
-            System.out.println(responseBody);
-            System.out.println("─────────────────────────────────────────────────────────────");
-
-            // 5️⃣ Verificar se o login foi bem-sucedido
             if (statusCode != 200) {
-                System.err.println("❌ [JWT] LOGIN FALHOU! Status: " + statusCode);
-                System.err.println("   Possíveis causas:");
-                System.err.println("   - Credenciais incorretas");
-                System.err.println("   - API fora do ar");
-                System.err.println("   - Endpoint mudou");
+                LOG.error("Login de {} falhou. Status: {}", user, statusCode);
                 return null;
             }
 
-            // 6️⃣ Tentar extrair o token de diferentes campos possíveis
-            String authToken = null;
-
-            // Tenta o campo "authorization" (mais comum)
-            authToken = response.jsonPath().getString("authorization");
-            if (authToken != null && !authToken.trim().isEmpty()) {
-                System.out.println("✅ [JWT] Token encontrado no campo 'authorization'");
-            } else {
-                // Tenta o campo "token"
-                authToken = response.jsonPath().getString("token");
-                if (authToken != null && !authToken.trim().isEmpty()) {
-                    System.out.println("✅ [JWT] Token encontrado no campo 'token'");
-                } else {
-                    // Tenta o campo "accessToken"
-                    authToken = response.jsonPath().getString("accessToken");
-                    if (authToken != null && !authToken.trim().isEmpty()) {
-                        System.out.println("✅ [JWT] Token encontrado no campo 'accessToken'");
-                    } else {
-                        // Última tentativa: procura qualquer campo que contenha "token"
-                        System.out.println("⚠️ [JWT] Nenhum campo comum de token encontrado");
-                        System.err.println("❌ [JWT] FALHA: Token não encontrado na resposta!");
-                        return null;
-                    }
-                }
+            // Tenta os campos mais comuns, parseando o corpo uma única vez
+            JsonPath json = response.jsonPath();
+            String authToken = firstNonBlank(
+                    json.getString("authorization"),
+                    json.getString("token"),
+                    json.getString("accessToken"));
+            if (authToken == null) {
+                LOG.error("Token não encontrado na resposta de login de {}", user);
+                return null;
             }
 
-            // 7️⃣ Limpar o token (remover espaços) e validar
             String cleanToken = authToken.trim();
             if (cleanToken.length() < 10) {
-                System.err.println("❌ [JWT] Token muito curto ou inválido: '" + cleanToken + "'");
+                LOG.error("Token muito curto ou inválido: '{}'", cleanToken);
                 return null;
             }
 
-            System.out.println("✅ [JWT] Token extraído com sucesso (" + cleanToken.length() + " caracteres)");
-            return cleanToken;
+            long now = System.currentTimeMillis();
+            return new CachedToken(cleanToken, expiresAtMillis(cleanToken, now));
 
         } catch (Exception e) {
-            System.err.println("❌ [JWT] ERRO DURANTE O LOGIN: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("ERRO DURANTE O LOGIN de {}: {}", user, e.getMessage());
             return null;
         }
     }
+
+    private static String firstNonBlank(String... candidates) {
+        for (String candidate : candidates) {
+            if (candidate != null && !candidate.trim().isEmpty()) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /** Token imutável com o instante de expiração (epoch millis). */
+    public record CachedToken(String value, long expiresAtMillis) {
+
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAtMillis - EXPIRY_SKEW_MS;
+        }
+    }
 }
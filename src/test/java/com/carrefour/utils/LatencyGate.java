@@ -0,0 +1,194 @@
+package com.carrefour.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gate de regressão de performance: compara os {@code latency-report*.json} da execução
+ * (um por fork, somados com {@link LatencyRecorder#merge(List)}) com a baseline
+ * versionada do mesmo alvo ({@code perf-baselines/<alvo>.json}) e falha o build se algum
+ * endpoint piorar.
+ *
+ * Só entram os relatórios carimbados com o {@code perf.run} desta execução: os de
+ * outra (forks que não rodaram agora, uma reprodução de cassete, que não grava
+ * relatório) são ignorados, e sem nenhum o gate não roda. Endpoint da baseline que não
+ * foi chamado reprova, para uma execução parcial não passar por verde.
+ *
+ * Um endpoint regride quando o p95 ou o p99 passa de {@code baseline × (1 + tolerância)}
+ * <b>e</b> a diferença é maior que {@code minDeltaMs} (piso de ruído), ou quando a taxa
+ * de erros sobe mais que {@code errorRateTolerance}. Percentis só são comparados com
+ * pelo menos {@code minSamples} amostras (sem as do aquecimento) dos dois lados, e com
+ * amostras suficientes para o percentil não ser o máximo: 20 para o p95, 100 para o
+ * p99. A taxa de erros conta todas.
+ *
+ * Contra o stand-in local mede o overhead do cliente; contra staging funciona como
+ * verificação de SLO do serviço. Os limites podem vir do bloco {@code "gate"} da
+ * própria baseline; as system properties têm precedência.
+ *
+ * Execução (fase verify): {@code mvn verify}; nova baseline: {@code mvn verify -Dperf.rebaseline=true}.
+ *
+ * Configuração via system properties:
+ * <ul>
+ *   <li>{@code perf.report.dir} – diretório dos relatórios da execução (padrão {@code target})</li>
+ *   <li>{@code perf.run} – carimbo da execução (o Maven passa o mesmo aos testes e ao gate);
+ *       sem ele, todos os relatórios do diretório entram</li>
+ *   <li>{@code perf.baseline.dir} – diretório das baselines (padrão {@code src/test/resources/perf-baselines})</li>
+ *   <li>{@code perf.gate.tolerance} – piora relativa aceita nos percentis (padrão 0.25)</li>
+ *   <li>{@code perf.gate.minDeltaMs} – piora absoluta mínima para contar (padrão 50)</li>
+ *   <li>{@code perf.gate.errorRateTolerance} – aumento aceito na taxa de erros (padrão 0.01)</li>
+ *   <li>{@code perf.gate.minSamples} – amostras mínimas para comparar percentis (padrão 10)</li>
+ *   <li>{@code perf.rebaseline} – {@code true} grava o relatório atual como baseline</li>
+ * </ul>
+ */
+public final class LatencyGate {
+
+    private static final Log LOG = Log.get("PERF");
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private static final int[] PERCENTILES = {95, 99};
+
+    private final double tolerance;
+    private final double minDeltaMs;
+    private final double errorRateTolerance;
+    private final long minSamples;
+
+    public LatencyGate(double tolerance, double minDeltaMs, double errorRateTolerance, long minSamples) {
+        this.tolerance = tolerance;
+        this.minDeltaMs = minDeltaMs;
+        this.errorRateTolerance = errorRateTolerance;
+        this.minSamples = minSamples;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path reportDir = Path.of(System.getProperty("perf.report.dir", LatencyRecorder.REPORT_DIR.toString()));
+        Path baselineDir = Path.of(System.getProperty("perf.baseline.dir", "src/test/resources/perf-baselines"));
+        try {
+            String run = System.getProperty("perf.run");
+            List<JsonNode> reports = new ArrayList<>();
+            if (Files.isDirectory(reportDir)) {
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(reportDir, LatencyRecorder.REPORT_GLOB)) {
+                    for (Path file : files) {
+                        JsonNode report = MAPPER.readTree(file.toFile());
+                        if (run == null || run.equals(report.path("run").asText(null))) {
+                            reports.add(report);
+                        } else {
+                            LOG.warn("{} é de outra execução ({}): ignorado", file, report.path("run").asText("sem carimbo"));
+                        }
+                    }
+                }
+            }
+            if (reports.isEmpty()) {
+                LOG.warn("Sem {} desta execução em {} (testes não rodaram ou reprodução de cassete): gate ignorado",
+                        LatencyRecorder.REPORT_GLOB, reportDir);
+                return;
+            }
+            JsonNode current = LatencyRecorder.merge(reports);
+            LOG.info("{} relatório(s) de latência somado(s)", reports.size());
+            Path baselineFile = baselineDir.resolve(current.path("target").asText("local") + ".json");
+
+            if (Boolean.getBoolean("perf.rebaseline")) {
+                rebaseline(current, baselineFile);
+                return;
+            }
+            if (!Files.exists(baselineFile)) {
+                LOG.warn("Sem baseline em {}: gate ignorado. Gere com -Dperf.rebaseline=true", baselineFile);
+                return;
+            }
+
+            JsonNode baseline = MAPPER.readTree(baselineFile.toFile());
+            List<String> regressions = fromSettings(baseline.path("gate")).compare(baseline, current);
+            if (!regressions.isEmpty()) {
+                regressions.forEach(r -> LOG.error("{}", r));
+                throw new IllegalStateException(regressions.size() + " regressão(ões) de performance contra "
+                        + baselineFile + " (nova baseline: -Dperf.rebaseline=true)");
+            }
+            LOG.info("Nenhuma regressão contra {}", baselineFile);
+        } finally {
+            Log.flush();
+        }
+    }
+
+    /** Limites do bloco {@code "gate"} da baseline, sobrescritos pelas system properties. */
+    static LatencyGate fromSettings(JsonNode gate) {
+        return new LatencyGate(
+                setting("perf.gate.tolerance", gate.path("tolerance").asDouble(0.25)),
+                setting("perf.gate.minDeltaMs", gate.path("minDeltaMs").asDouble(50)),
+                setting("perf.gate.errorRateTolerance", gate.path("errorRateTolerance").asDouble(0.01)),
+                (long) setting("perf.gate.minSamples", gate.path("minSamples").asDouble(10)));
+    }
+
+    /** Lista as regressões do relatório {@code current} em relação à {@code baseline}. */
+    public List<String> compare(JsonNode baseline, JsonNode current) {
+        List<String> regressions = new ArrayList<>();
+        JsonNode currentEndpoints = current.path("endpoints");
+        for (Iterator<Map.Entry<String, JsonNode>> it = baseline.path("endpoints").fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> entry = it.next();
+            String endpoint = entry.getKey();
+            JsonNode before = entry.getValue();
+            JsonNode after = currentEndpoints.get(endpoint);
+            if (after == null) {
+                regressions.add(endpoint + " está na baseline mas não foi chamado nesta execução (execução parcial?)");
+                continue;
+            }
+
+            long samples = Math.min(after.path("count").asLong(), before.path("count").asLong());
+            for (int p : PERCENTILES) {
+                if (samples < minSamples || samples < 100 / (100 - p)) {
+                    continue;
+                }
+                String percentile = "p" + p + "Ms";
+                double was = before.path(percentile).asDouble();
+                double now = after.path(percentile).asDouble();
+                if (now > was * (1 + tolerance) && now - was > minDeltaMs) {
+                    regressions.add(String.format("%s %s: %.2f ms → %.2f ms (+%.0f%%)",
+                            endpoint, percentile, was, now, (now / Math.max(was, 1e-9) - 1) * 100));
+                }
+            }
+
+            double rateBefore = errorRate(before);
+            double rateNow = errorRate(after);
+            if (rateNow - rateBefore > errorRateTolerance) {
+                regressions.add(String.format("%s taxa de erros: %.2f%% → %.2f%%",
+                        endpoint, rateBefore * 100, rateNow * 100));
+            }
+        }
+        return regressions;
+    }
+
+    private static void rebaseline(JsonNode current, Path baselineFile) throws IOException {
+        ObjectNode baseline = current.deepCopy();
+        baseline.remove("generatedAt");
+        baseline.remove("run");
+        baseline.path("endpoints").forEach(endpoint -> ((ObjectNode) endpoint).remove("histogram"));
+        if (Files.exists(baselineFile)) {
+            // Mantém os limites já ajustados para este alvo
+            JsonNode previousGate = MAPPER.readTree(baselineFile.toFile()).get("gate");
+            if (previousGate != null) {
+                baseline.set("gate", previousGate);
+            }
+        }
+        Files.createDirectories(baselineFile.toAbsolutePath().getParent());
+        MAPPER.writeValue(baselineFile.toFile(), baseline);
+        LOG.info("Baseline atualizada: {}", baselineFile);
+    }
+
+    private static double errorRate(JsonNode endpoint) {
+        long count = endpoint.path("count").asLong() + endpoint.path("warmup").asLong();
+        return count == 0 ? 0 : (double) endpoint.path("errors").asLong() / count;
+    }
+
+    private static double setting(String property, double fallback) {
+        String value = System.getProperty(property);
+        return value == null || value.isBlank() ? fallback : Double.parseDouble(value);
+    }
+}
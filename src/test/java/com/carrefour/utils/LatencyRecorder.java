@@ -0,0 +1,288 @@
+package com.carrefour.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.restassured.filter.Filter;
+import io.restassured.response.Response;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.zip.DataFormatException;
+
+/**
+ * Latência de cada requisição da suíte, por endpoint ({@code método + caminho com
+ * template}, ex.: {@code GET /usuarios/{id}}), em HdrHistograms concorrentes (µs).
+ *
+ * O {@link #filter()} entra em toda requisição via {@link ApiConfig#requestSpec()}; no
+ * fim da execução o {@code RunSummaryListener} grava o relatório em
+ * {@code target/latency-report[-forkN].json} (um por JVM do surefire, como as
+ * {@link Metrics}) e o anexa ao Allure; o {@link LatencyGate} soma os dos forks com
+ * {@link #merge(List)}.
+ *
+ * Conta como erro a resposta 5xx ou a falha de I/O; os 4xx são o esperado nos
+ * cenários negativos. Cada requisição também entra nas {@link Metrics}
+ * ({@code carrefour_http_*}).
+ *
+ * O relatório da suíte deixa de fora o aquecimento: só entram as requisições que
+ * começaram depois da primeira resposta da JVM. As que saem juntas no início (logins do
+ * pool, primeiros testes em paralelo) pagam carga de classes, JIT e conexões, levam
+ * segundos e virariam o p95 de endpoints com poucas chamadas; ficam só contadas em
+ * {@code warmup}. O {@link #capture} recebe todas: o orçamento do teste tem o seu
+ * próprio aquecimento.
+ */
+public final class LatencyRecorder {
+
+    private static final String FORK = System.getProperty("test.fork");
+    /** Carimbo da execução ({@code perf.run}, do Maven), conferido pelo {@link LatencyGate}. */
+    private static final String RUN = System.getProperty("perf.run");
+
+    public static final Path REPORT_DIR = Path.of("target");
+    /** Relatórios de todos os forks em {@link #REPORT_DIR}. */
+    public static final String REPORT_GLOB = "latency-report*.json";
+    public static final Path REPORT_FILE = REPORT_DIR.resolve(
+            "latency-report" + (FORK != null ? "-fork" + FORK : "") + ".json");
+
+    /**
+     * O segmento depois de {@code /usuarios/}, seja qual for: IDs reais e os inválidos dos
+     * cenários negativos caem no mesmo endpoint, em vez de abrir um rótulo por valor.
+     */
+    private static final Pattern ID_SEGMENT = Pattern.compile("(?<=/usuarios)/[^/]+");
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private static final LatencyRecorder SHARED = new LatencyRecorder();
+
+    /** Cópia das latências desta thread, para o orçamento do teste em execução. */
+    private static final ThreadLocal<Histogram> CAPTURE = new ThreadLocal<>();
+
+    /** {@link System#nanoTime()} do fim da primeira resposta; {@link #COLD} até ela chegar. */
+    private static final AtomicLong WARM_SINCE = new AtomicLong(Long.MIN_VALUE);
+    private static final long COLD = Long.MIN_VALUE;
+
+    private final ConcurrentMap<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+
+    /** Gravador avulso; o da suíte é o {@link #shared()}. */
+    public LatencyRecorder() {
+    }
+
+    /** Gravador da suíte, alimentado pelo {@link #filter()}. */
+    public static LatencyRecorder shared() {
+        return SHARED;
+    }
+
+    /**
+     * Passa a copiar para {@code sink} (µs) a latência de cada requisição feita por esta
+     * thread, e devolve o destino anterior para ser restaurado; {@code null} desliga.
+     */
+    public static Histogram capture(Histogram sink) {
+        Histogram previous = CAPTURE.get();
+        if (sink == null) {
+            CAPTURE.remove();
+        } else {
+            CAPTURE.set(sink);
+        }
+        return previous;
+    }
+
+    /**
+     * Filtro que cronometra a requisição inteira, até o corpo da resposta ser lido. Fica
+     * depois do {@link RateLimiter#filter()}: a espera por permissão não entra na medida.
+     */
+    public static Filter filter() {
+        return (requestSpec, responseSpec, ctx) -> {
+            String endpoint = requestSpec.getMethod() + " " + templatedPath(requestSpec.getUserDefinedPath(),
+                    requestSpec.getURI());
+            long start = System.nanoTime();
+            int status = 0;
+            try {
+                Response response = ctx.next(requestSpec, responseSpec);
+                response.asByteArray();
+                status = response.getStatusCode();
+                return response;
+            } finally {
+                long end = System.nanoTime();
+                long elapsed = end - start;
+                recordSuite(endpoint, start, end, status > 0 && status < 500);
+                Histogram sink = CAPTURE.get();
+                if (sink != null) {
+                    sink.recordValue(Math.max(0L, TimeUnit.NANOSECONDS.toMicros(elapsed)));
+                }
+                Metrics.recordRequest(requestSpec.getMethod(), endpoint.substring(endpoint.indexOf(' ') + 1),
+                        status, elapsed);
+            }
+        };
+    }
+
+    /**
+     * Grava no relatório da suíte uma requisição feita entre {@code startNanos} e
+     * {@code endNanos}; as do aquecimento só contam em {@code warmup} (e nos erros).
+     */
+    public static void recordSuite(String endpoint, long startNanos, long endNanos, boolean success) {
+        long warmSince = WARM_SINCE.get();
+        if (warmSince != COLD && startNanos - warmSince >= 0) {
+            SHARED.record(endpoint, endNanos - startNanos, success);
+            return;
+        }
+        WARM_SINCE.compareAndSet(COLD, endNanos);
+        EndpointStats stats = SHARED.endpoints.computeIfAbsent(endpoint, k -> new EndpointStats());
+        stats.warmup.increment();
+        if (!success) {
+            stats.errors.increment();
+        }
+    }
+
+    public void record(String endpoint, long elapsedNanos, boolean success) {
+        EndpointStats stats = endpoints.computeIfAbsent(endpoint, k -> new EndpointStats());
+        stats.latencyMicros.recordValue(Math.max(0L, TimeUnit.NANOSECONDS.toMicros(elapsedNanos)));
+        if (!success) {
+            stats.errors.increment();
+        }
+    }
+
+    public boolean isEmpty() {
+        return endpoints.isEmpty();
+    }
+
+    /**
+     * Relatório JSON com o {@code target} e o {@code run} da execução e, por endpoint,
+     * {@code count}, {@code warmup} (requisições do aquecimento, fora dos percentis),
+     * {@code errors}, {@code p50Ms}/{@code p95Ms}/{@code p99Ms}/{@code maxMs} e o
+     * {@code histogram} (HdrHistogram comprimido, em Base64) que o {@link #merge(List)} soma.
+     */
+    public ObjectNode toJson() {
+        return toJson(ApiConfig.targetKey(), RUN);
+    }
+
+    /**
+     * Soma relatórios de {@link #toJson()} (um por fork) num só, no mesmo formato.
+     * Percentis não se somam: cada endpoint é refeito a partir dos histogramas.
+     */
+    public static ObjectNode merge(List<JsonNode> reports) {
+        LatencyRecorder merged = new LatencyRecorder();
+        String target = null;
+        String run = null;
+        for (JsonNode report : reports) {
+            String reportTarget = report.path("target").asText();
+            String reportRun = report.path("run").asText(null);
+            if (target != null && !(target.equals(reportTarget) && Objects.equals(run, reportRun))) {
+                throw new IllegalArgumentException("Relatórios de execuções diferentes: " + target + "/" + run
+                        + " e " + reportTarget + "/" + reportRun);
+            }
+            target = reportTarget;
+            run = reportRun;
+            for (Iterator<Map.Entry<String, JsonNode>> it = report.path("endpoints").fields(); it.hasNext(); ) {
+                Map.Entry<String, JsonNode> entry = it.next();
+                JsonNode encoded = entry.getValue().get("histogram");
+                if (encoded == null) {
+                    throw new IllegalArgumentException("Relatório sem histograma em " + entry.getKey());
+                }
+                EndpointStats stats = merged.endpoints.computeIfAbsent(entry.getKey(), k -> new EndpointStats());
+                stats.latencyMicros.add(decode(encoded.asText()));
+                stats.warmup.add(entry.getValue().path("warmup").asLong());
+                stats.errors.add(entry.getValue().path("errors").asLong());
+            }
+        }
+        return merged.toJson(target, run);
+    }
+
+    private ObjectNode toJson(String target, String run) {
+        ObjectNode root = MAPPER.createObjectNode();
+        root.put("generatedAt", Instant.now().toString());
+        root.put("target", target);
+        if (run != null) {
+            root.put("run", run);
+        }
+        ObjectNode byEndpoint = root.putObject("endpoints");
+        for (Map.Entry<String, EndpointStats> entry : new TreeMap<>(endpoints).entrySet()) {
+            Histogram h = entry.getValue().latencyMicros.copy();
+            ObjectNode node = byEndpoint.putObject(entry.getKey());
+            node.put("count", h.getTotalCount());
+            node.put("warmup", entry.getValue().warmup.sum());
+            node.put("errors", entry.getValue().errors.sum());
+            node.put("p50Ms", millis(h.getValueAtPercentile(50)));
+            node.put("p95Ms", millis(h.getValueAtPercentile(95)));
+            node.put("p99Ms", millis(h.getValueAtPercentile(99)));
+            node.put("maxMs", millis(h.getMaxValue()));
+            node.put("histogram", encode(h));
+        }
+        return root;
+    }
+
+    /** Grava o relatório em {@code file} e devolve o conteúdo gravado. */
+    public byte[] writeReport(Path file) {
+        try {
+            byte[] json = MAPPER.writeValueAsBytes(toJson());
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Files.write(file, json);
+            return json;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar " + file, e);
+        }
+    }
+
+    /**
+     * Caminho com template: o definido no teste se já tiver {@code {param}}, senão o
+     * caminho real com o segmento depois de {@code /usuarios/} trocado por {@code {id}}.
+     */
+    static String templatedPath(String userDefinedPath, String uri) {
+        if (userDefinedPath != null && userDefinedPath.contains("{")) {
+            return stripQuery(userDefinedPath);
+        }
+        String path;
+        try {
+            path = URI.create(uri).getPath();
+        } catch (IllegalArgumentException e) {
+            path = stripQuery(userDefinedPath != null ? userDefinedPath : uri);
+        }
+        return ID_SEGMENT.matcher(path).replaceAll("/{id}");
+    }
+
+    private static String stripQuery(String path) {
+        int query = path.indexOf('?');
+        return query < 0 ? path : path.substring(0, query);
+    }
+
+    private static String encode(Histogram h) {
+        ByteBuffer buffer = ByteBuffer.allocate(h.getNeededByteBufferCapacity());
+        int size = h.encodeIntoCompressedByteBuffer(buffer);
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), size));
+    }
+
+    private static Histogram decode(String base64) {
+        try {
+            return Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(Base64.getDecoder().decode(base64)), 0);
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Histograma inválido no relatório", e);
+        }
+    }
+
+    private static double millis(long micros) {
+        return Math.round(micros / 10.0) / 100.0;
+    }
+
+    private static final class EndpointStats {
+        private final ConcurrentHistogram latencyMicros = new ConcurrentHistogram(3);
+        private final LongAdder warmup = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+    }
+}
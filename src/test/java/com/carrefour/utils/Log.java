@@ -0,0 +1,241 @@
+package com.carrefour.utils;
+
+import java.io.PrintStream;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Logger da suíte, com níveis e escrita assíncrona.
+ *
+ * Quem loga só verifica o nível e publica o evento num ring buffer sem lock; a
+ * formatação ({@code {}} substituídos pelos argumentos) e a escrita no console ficam
+ * com a thread {@code log-appender}. Mensagens abaixo do nível configurado custam
+ * uma comparação: os argumentos nem chegam a virar texto.
+ *
+ * Com o buffer cheio, DEBUG e INFO são descartados (e contados); WARN e ERROR
+ * esperam espaço.
+ *
+ * Configuração via system properties:
+ * <ul>
+ *   <li>{@code log.level} – DEBUG, INFO, WARN ou ERROR (padrão INFO; o log por requisição é DEBUG)</li>
+ *   <li>{@code log.async} – {@code false} escreve direto no console, na thread de quem loga (padrão true)</li>
+ *   <li>{@code log.bufferSize} – capacidade do ring buffer, arredondada para potência de 2 (padrão 8192)</li>
+ * </ul>
+ */
+public final class Log {
+
+    public enum Level {
+        DEBUG, INFO, WARN, ERROR;
+
+        private final String label = String.format("%-5s", name());
+    }
+
+    private static final Level THRESHOLD = Level.valueOf(System.getProperty("log.level", "INFO").toUpperCase(Locale.ROOT));
+    private static final boolean ASYNC = Boolean.parseBoolean(System.getProperty("log.async", "true"));
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    private static final ConcurrentMap<String, Log> LOGGERS = new ConcurrentHashMap<>();
+    private static final RingBuffer BUFFER = ASYNC ? new RingBuffer(Integer.getInteger("log.bufferSize", 8192)) : null;
+
+    /** Último segundo formatado ({@code HH:mm:ss}); o relógio só é formatado uma vez por segundo. */
+    private static volatile FormattedSecond lastSecond = new FormattedSecond(-1, "");
+
+    private final String name;
+
+    private Log(String name) {
+        this.name = name;
+    }
+
+    /** Logger com o nome exibido em cada linha (ex.: {@code EDGE}, {@code JWT}). */
+    public static Log get(String name) {
+        return LOGGERS.computeIfAbsent(name, Log::new);
+    }
+
+    public static boolean isEnabled(Level level) {
+        return level.compareTo(THRESHOLD) >= 0;
+    }
+
+    public boolean isDebugEnabled() {
+        return isEnabled(Level.DEBUG);
+    }
+
+    public void debug(String message, Object... args) {
+        log(Level.DEBUG, message, args);
+    }
+
+    public void info(String message, Object... args) {
+        log(Level.INFO, message, args);
+    }
+
+    public void warn(String message, Object... args) {
+        log(Level.WARN, message, args);
+    }
+
+    public void error(String message, Object... args) {
+        log(Level.ERROR, message, args);
+    }
+
+    /** Espera o appender escrever tudo o que já foi publicado (ex.: antes de um relatório). */
+    public static void flush() {
+        if (BUFFER != null) {
+            BUFFER.awaitDrained();
+        }
+    }
+
+    /** Mensagens descartadas por buffer cheio desde o início da execução. */
+    public static long dropped() {
+        return BUFFER != null ? BUFFER.dropped.sum() : 0L;
+    }
+
+    private void log(Level level, String message, Object[] args) {
+        if (!isEnabled(level)) {
+            return;
+        }
+        Event event = new Event(System.currentTimeMillis(), level, name, Thread.currentThread().getName(), message, args);
+        if (BUFFER == null) {
+            write(System.out, event);
+        } else {
+            BUFFER.publish(event);
+        }
+    }
+
+    private static void write(PrintStream out, Event event) {
+        StringBuilder line = new StringBuilder(64 + event.message.length());
+        appendTime(line, event.timestampMillis);
+        line.append(' ').append(event.level.label).append(" [").append(event.thread).append("] ")
+                .append(event.logger).append(" - ");
+        format(line, event.message, event.args);
+        out.println(line);
+    }
+
+    private static void appendTime(StringBuilder out, long timestampMillis) {
+        long second = Math.floorDiv(timestampMillis, 1000L);
+        FormattedSecond cached = lastSecond;
+        if (cached.epochSecond != second) {
+            cached = new FormattedSecond(second, TIME.format(Instant.ofEpochSecond(second)));
+            lastSecond = cached;
+        }
+        int millis = (int) Math.floorMod(timestampMillis, 1000L);
+        out.append(cached.text).append('.');
+        if (millis < 100) {
+            out.append(millis < 10 ? "00" : "0");
+        }
+        out.append(millis);
+    }
+
+    /** Substitui cada {@code {}} pelo próximo argumento; argumentos sobrando vão ao fim. */
+    static void format(StringBuilder out, String message, Object[] args) {
+        int arg = 0;
+        int from = 0;
+        int at;
+        while (arg < args.length && (at = message.indexOf("{}", from)) >= 0) {
+            out.append(message, from, at).append(args[arg++]);
+            from = at + 2;
+        }
+        out.append(message, from, message.length());
+        while (arg < args.length) {
+            out.append(' ').append(args[arg++]);
+        }
+    }
+
+    private record FormattedSecond(long epochSecond, String text) {
+    }
+
+    private record Event(long timestampMillis, Level level, String logger, String thread,
+                         String message, Object[] args) {
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════════
+    // RING BUFFER (vários produtores, um consumidor)
+    // ═══════════════════════════════════════════════════════════════════════════
+    /**
+     * Produtores reservam uma posição com CAS em {@code tail} e publicam o evento no
+     * slot; o appender consome em ordem, limpa o slot e só então avança {@code head}.
+     * Slot {@code null} significa "reservado mas ainda não publicado".
+     */
+    private static final class RingBuffer {
+
+        private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+        private final AtomicReferenceArray<Event> slots;
+        private final int mask;
+        private final AtomicLong tail = new AtomicLong();
+        private volatile long head;
+        private final LongAdder dropped = new LongAdder();
+        private final Thread appender;
+
+        RingBuffer(int requestedCapacity) {
+            int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+            this.slots = new AtomicReferenceArray<>(capacity);
+            this.mask = capacity - 1;
+            this.appender = new Thread(this::drainLoop, "log-appender");
+            appender.setDaemon(true);
+            appender.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(this::awaitDrained, "log-flush"));
+        }
+
+        void publish(Event event) {
+            boolean mustDeliver = event.level.compareTo(Level.WARN) >= 0;
+            long seq;
+            while (true) {
+                seq = tail.get();
+                if (seq - head > mask) {
+                    if (!mustDeliver) {
+                        dropped.increment();
+                        return;
+                    }
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    continue;
+                }
+                if (tail.compareAndSet(seq, seq + 1)) {
+                    break;
+                }
+            }
+            slots.set((int) (seq & mask), event);
+            LockSupport.unpark(appender);
+        }
+
+        private void drainLoop() {
+            PrintStream out = null;
+            long reportedDrops = 0;
+            while (true) {
+                long h = head;
+                Event event = slots.get((int) (h & mask));
+                if (event == null) {
+                    if (out != null) {
+                        out.flush();
+                    }
+                    long drops = dropped.sum();
+                    if (drops != reportedDrops) {
+                        System.out.println("[LOG] " + (drops - reportedDrops) + " mensagens descartadas (buffer cheio)");
+                        reportedDrops = drops;
+                    }
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    continue;
+                }
+                slots.set((int) (h & mask), null);
+                out = System.out; // o surefire pode trocar o System.out durante a execução
+                write(out, event);
+                head = h + 1;
+            }
+        }
+
+        void awaitDrained() {
+            long target = tail.get();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (head < target && System.nanoTime() < deadline) {
+                LockSupport.unpark(appender);
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+}
@@ -0,0 +1,369 @@
+package com.carrefour.utils;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.Function;
+
+/**
+ * Registro de métricas da execução (suíte e carga), exportado no formato de texto do
+ * Prometheus.
+ *
+ * Contadores e histogramas são {@link LongAdder}s: registrar é uma soma sem lock, e a
+ * série (nome + rótulos) é criada uma vez e depois só lida do mapa. Gauges (e contadores
+ * mantidos por outras classes) são funções lidas na hora da exportação, ex.: a taxa atual
+ * do {@link RateLimiter}.
+ * Toda série leva o rótulo {@code target} ({@link ApiConfig#targetKey()}), para separar
+ * local, live e staging nos mesmos painéis da produção.
+ *
+ * No fim da suíte o {@code SuiteSessionListener} grava o arquivo; os geradores de carga
+ * gravam ao terminar. Com {@code metrics.port} o registro também fica em
+ * {@code http://localhost:<porta>/metrics} durante a execução, para o Prometheus
+ * coletar ao vivo em cargas longas.
+ *
+ * Configuração via system properties:
+ * <ul>
+ *   <li>{@code metrics.file} – arquivo gravado no fim (padrão {@code target/metrics.prom};
+ *       nas JVMs do surefire, {@code -forkN} antes da extensão)</li>
+ *   <li>{@code metrics.port} – porta do endpoint {@code /metrics} (padrão desligado)</li>
+ * </ul>
+ */
+public final class Metrics {
+
+    /** Limites (em segundos) dos histogramas de duração. */
+    public static final double[] SECONDS_BUCKETS =
+            {0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30};
+
+    private static final Log LOG = Log.get("METRICS");
+    private static final String FORK = System.getProperty("test.fork");
+    private static final Metrics SHARED = new Metrics();
+
+    /** Séries HTTP do {@link #recordRequest} por método e caminho, resolvidas uma vez. */
+    private static final ConcurrentMap<String, ConcurrentMap<String, HttpSeries>> HTTP = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Family<?>> families = new ConcurrentHashMap<>();
+    private volatile HttpServer server;
+
+    /** Registro da execução. */
+    public static Metrics shared() {
+        return SHARED;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════════
+    // ATALHOS DA SUÍTE
+    // ═══════════════════════════════════════════════════════════════════════════
+    /**
+     * Uma requisição à API; {@code status} 0 = falha de I/O. As séries vêm do cache por
+     * método e caminho, sem montar rótulos a cada chamada. Na reprodução de cassete a
+     * duração não é da API e fica de fora, como no relatório do {@link LatencyRecorder}.
+     */
+    public static void recordRequest(String method, String path, int status, long elapsedNanos) {
+        ConcurrentMap<String, HttpSeries> byPath = HTTP.computeIfAbsent(method, m -> new ConcurrentHashMap<>());
+        HttpSeries series = byPath.get(path);
+        if (series == null) {
+            series = byPath.computeIfAbsent(path, p -> new HttpSeries(method, p));
+        }
+        series.requests(status).inc();
+        if (series.duration != null) {
+            series.duration.observeNanos(elapsedNanos);
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════════
+    // REGISTRO
+    // ═══════════════════════════════════════════════════════════════════════════
+    /**
+     * Contador {@code name} com os rótulos dados em pares ({@code "status", "200"}).
+     * Chamadas com o mesmo nome e rótulos devolvem a mesma série.
+     */
+    public Counter counter(String name, String help, String... labels) {
+        return family(name, help, "counter", ignored -> new Counter()).child(labels);
+    }
+
+    /** Histograma {@code name}; os limites valem para todas as séries do nome. */
+    public Histogram histogram(String name, String help, double[] buckets, String... labels) {
+        return family(name, help, "histogram", ignored -> new Histogram(buckets)).child(labels);
+    }
+
+    /** Gauge lido de {@code value} a cada exportação; registrar de novo troca a função. */
+    public void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        Family<Gauge> family = family(name, help, "gauge", ignored -> new Gauge());
+        family.child(labels).value = value;
+    }
+
+    /** Contador mantido por outra classe (ex.: um {@link LongAdder}), lido a cada exportação. */
+    public void counterFunction(String name, String help, DoubleSupplier value, String... labels) {
+        Family<Gauge> family = family(name, help, "counter", ignored -> new Gauge());
+        family.child(labels).value = value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Sample> Family<T> family(String name, String help, String type, Function<String, T> factory) {
+        Family<?> family = families.computeIfAbsent(name, n -> new Family<>(help, type, factory));
+        if (!family.type.equals(type)) {
+            throw new IllegalArgumentException(name + " já registrada como " + family.type);
+        }
+        return (Family<T>) family;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════════
+    // EXPORTAÇÃO
+    // ═══════════════════════════════════════════════════════════════════════════
+    /** Todas as séries no formato de texto do Prometheus (0.0.4), em ordem de nome. */
+    public String exposition() {
+        String target = "target=\"" + escape(ApiConfig.targetKey()) + "\"";
+        StringBuilder out = new StringBuilder(4096);
+        for (Map.Entry<String, Family<?>> entry : new TreeMap<>(families).entrySet()) {
+            String name = entry.getKey();
+            Family<?> family = entry.getValue();
+            out.append("# HELP ").append(name).append(' ').append(family.help.replace("\\", "\\\\").replace("\n", "\\n"))
+                    .append('\n');
+            out.append("# TYPE ").append(name).append(' ').append(family.type).append('\n');
+            for (Map.Entry<String, ? extends Sample> child : new TreeMap<>(family.children).entrySet()) {
+                String labels = child.getKey().isEmpty() ? target : target + "," + child.getKey();
+                child.getValue().write(out, name, labels);
+            }
+        }
+        return out.toString();
+    }
+
+    /** Arquivo padrão do fim da execução ({@code metrics.file}, com o fork no nome). */
+    public static Path defaultFile() {
+        String file = System.getProperty("metrics.file", "target/metrics.prom");
+        if (FORK != null) {
+            int dot = file.lastIndexOf('.');
+            file = dot > file.lastIndexOf('/') ? file.substring(0, dot) + "-fork" + FORK + file.substring(dot)
+                    : file + "-fork" + FORK;
+        }
+        return Path.of(file);
+    }
+
+    /** Grava {@link #exposition()} em {@code file}. */
+    public Path writeTo(Path file) {
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Files.writeString(file, exposition(), StandardCharsets.UTF_8);
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar " + file, e);
+        }
+    }
+
+    /** Sobe o endpoint {@code /metrics} se {@code metrics.port} estiver definido. */
+    public synchronized void serveIfConfigured() {
+        Integer port = Integer.getInteger("metrics.port");
+        if (port == null || server != null) {
+            return;
+        }
+        try {
+            HttpServer http = HttpServer.create(new InetSocketAddress(port), 0);
+            http.setExecutor(Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "metrics-http");
+                thread.setDaemon(true);
+                return thread;
+            }));
+            http.createContext("/metrics", exchange -> {
+                byte[] body = exposition().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(body);
+                }
+            });
+            http.start();
+            server = http;
+            LOG.info("Métricas em http://localhost:{}/metrics", http.getAddress().getPort());
+        } catch (IOException e) {
+            LOG.warn("Não foi possível abrir a porta {} de métricas: {}", port, e.getMessage());
+        }
+    }
+
+    /** Fecha o endpoint aberto por {@link #serveIfConfigured()}. */
+    public synchronized void stopServer() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String format(double value) {
+        if (value == Double.POSITIVE_INFINITY) {
+            return "+Inf";
+        }
+        return value == Math.rint(value) && Math.abs(value) < 1e15 ? Long.toString((long) value) : Double.toString(value);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════════
+    // SÉRIES
+    // ═══════════════════════════════════════════════════════════════════════════
+    /** Uma métrica: tipo, ajuda e as séries por rótulos (já formatados). */
+    private static final class Family<T extends Sample> {
+
+        private final String help;
+        private final String type;
+        private final Function<String, T> factory;
+        private final ConcurrentMap<String, T> children = new ConcurrentHashMap<>();
+
+        private Family(String help, String type, Function<String, T> factory) {
+            this.help = help;
+            this.type = type;
+            this.factory = factory;
+        }
+
+        T child(String... labels) {
+            if (labels.length % 2 != 0) {
+                throw new IllegalArgumentException("Rótulos devem vir em pares: " + Arrays.toString(labels));
+            }
+            StringBuilder key = new StringBuilder();
+            for (int i = 0; i < labels.length; i += 2) {
+                if (i > 0) {
+                    key.append(',');
+                }
+                key.append(labels[i]).append("=\"").append(escape(labels[i + 1])).append('"');
+            }
+            return children.computeIfAbsent(key.toString(), factory);
+        }
+    }
+
+    /** Contadores (um por status, criados no primeiro uso) e histograma de um endpoint. */
+    private static final class HttpSeries {
+
+        private final String method;
+        private final String path;
+        /** {@code null} na reprodução de cassete: a série nem é registrada. */
+        private final Histogram duration;
+        private final AtomicReferenceArray<Counter> byStatus = new AtomicReferenceArray<>(600);
+
+        private HttpSeries(String method, String path) {
+            this.method = method;
+            this.path = path;
+            this.duration = Cassette.isReplay() ? null
+                    : SHARED.histogram("carrefour_http_request_duration_seconds", "Duração das requisições à API",
+                            SECONDS_BUCKETS, "method", method, "path", path);
+        }
+
+        Counter requests(int status) {
+            if (status < 0 || status >= byStatus.length()) {
+                return counter(status);
+            }
+            Counter counter = byStatus.get(status);
+            if (counter == null) {
+                counter = counter(status);
+                byStatus.set(status, counter);
+            }
+            return counter;
+        }
+
+        private Counter counter(int status) {
+            return SHARED.counter("carrefour_http_requests_total", "Requisições à API por endpoint e status",
+                    "method", method, "path", path, "status", Integer.toString(status));
+        }
+    }
+
+    private interface Sample {
+        void write(StringBuilder out, String name, String labels);
+    }
+
+    public static final class Counter implements Sample {
+
+        private final LongAdder count = new LongAdder();
+
+        public void inc() {
+            count.increment();
+        }
+
+        public void add(long amount) {
+            count.add(amount);
+        }
+
+        public long get() {
+            return count.sum();
+        }
+
+        @Override
+        public void write(StringBuilder out, String name, String labels) {
+            out.append(name).append('{').append(labels).append("} ").append(count.sum()).append('\n');
+        }
+    }
+
+    private static final class Gauge implements Sample {
+
+        private volatile DoubleSupplier value = () -> 0.0;
+
+        @Override
+        public void write(StringBuilder out, String name, String labels) {
+            out.append(name).append('{').append(labels).append("} ").append(format(value.getAsDouble())).append('\n');
+        }
+    }
+
+    public static final class Histogram implements Sample {
+
+        private final double[] bounds;
+        private final LongAdder[] buckets;
+        private final LongAdder count = new LongAdder();
+        private final DoubleAdder sum = new DoubleAdder();
+
+        private Histogram(double[] bounds) {
+            this.bounds = bounds.clone();
+            this.buckets = new LongAdder[bounds.length];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        public void observe(double value) {
+            // Só o primeiro limite >= value é incrementado; a exportação acumula
+            int i = Arrays.binarySearch(bounds, value);
+            int bucket = i >= 0 ? i : -i - 1;
+            if (bucket < buckets.length) {
+                buckets[bucket].increment();
+            }
+            count.increment();
+            sum.add(value);
+        }
+
+        public void observeNanos(long nanos) {
+            observe(nanos / (double) TimeUnit.SECONDS.toNanos(1));
+        }
+
+        public long count() {
+            return count.sum();
+        }
+
+        @Override
+        public void write(StringBuilder out, String name, String labels) {
+            long total = count.sum();
+            long cumulative = 0;
+            for (int i = 0; i < bounds.length; i++) {
+                cumulative += buckets[i].sum();
+                out.append(name).append("_bucket{").append(labels).append(",le=\"").append(format(bounds[i]))
+                        .append("\"} ").append(Math.min(cumulative, total)).append('\n');
+            }
+            out.append(name).append("_bucket{").append(labels).append(",le=\"+Inf\"} ").append(total).append('\n');
+            out.append(name).append("_sum{").append(labels).append("} ").append(format(sum.sum())).append('\n');
+            out.append(name).append("_count{").append(labels).append("} ").append(total).append('\n');
+        }
+    }
+}
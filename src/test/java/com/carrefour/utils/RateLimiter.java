@@ -1,19 +1,79 @@
 package com.carrefour.utils;
 
+import io.restassured.filter.Filter;
+import io.restassured.http.Headers;
+import io.restassured.response.Response;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
 /**
- * Limita o número de requisições a 100 por minuto.
- * Cada chamada a {@code acquire()} pode bloquear a thread por até 600 ms
- * (1 min / 100 req = 600 ms entre requisições).
+ * Limita as requisições à API, adaptando a taxa ao que o servidor responde.
+ *
+ * Usa um {@link AdaptiveRateLimiter} compartilhado: começa em {@code ratelimit.rpm}
+ * req/min, sobe enquanto as respostas vêm saudáveis e cai pela metade em 429, 5xx ou
+ * pico de latência, respeitando {@code Retry-After} e {@code X-RateLimit-*}. A espera
+ * acontece fora de qualquer lock, então threads concorrentes não ficam enfileiradas
+ * atrás de uma thread dormindo. Na reprodução de cassete nada chega à API e o limite
+ * não se aplica.
+ *
+ * O {@link #filter()} entra em toda requisição via {@link ApiConfig#requestSpec()}; a taxa
+ * atual fica em {@link #currentRpm()} (e no gauge {@code carrefour_ratelimiter_rate_rpm}
+ * das {@link Metrics}) e o resumo sai no fim da suíte. Com
+ * {@code -Dshared.state=true} as permissões saem do bucket global do {@link SharedState},
+ * de modo que todos os forks juntos respeitam o limite.
  *
- * Implementação simples baseada em contagem de chamadas por janela de 1 minuto.
+ * Configuração via system properties (no alvo local os padrões não limitam na prática):
+ * <ul>
+ *   <li>{@code ratelimit.rpm} – taxa inicial em requisições por minuto (padrão 100)</li>
+ *   <li>{@code ratelimit.minRpm} / {@code ratelimit.maxRpm} – faixa da taxa (padrão 10 / 6000)</li>
+ *   <li>{@code ratelimit.burst} – tamanho máximo da rajada (padrão 10)</li>
+ *   <li>{@code ratelimit.increaseRpm} – aumento por segundo de respostas saudáveis (padrão 60)</li>
+ *   <li>{@code ratelimit.decrease} – fator de redução (padrão 0.5)</li>
+ *   <li>{@code ratelimit.spikeFactor} / {@code ratelimit.spikeFloorMs} – pico de latência:
+ *       acima de N × a média e do piso (padrão 3 / 250)</li>
+ * </ul>
  */
 public class RateLimiter {
 
-    private static final int MAX_REQUESTS_PER_MINUTE = 100;
-    private static final long ONE_MINUTE_MS = 60_000L;
+    /** O stand-in em processo não tem limite: a taxa fica fixa em 10 mil req/s. */
+    private static final String LOCAL_RPM = "600000";
 
-    private static int requestCount = 0;
-    private static long windowStart = System.currentTimeMillis();
+    private static final boolean LOCAL = ApiConfig.isLocal();
+    private static final double INITIAL_RPM =
+            Double.parseDouble(System.getProperty("ratelimit.rpm", LOCAL ? LOCAL_RPM : "100"));
+    private static final double MIN_RPM =
+            Double.parseDouble(System.getProperty("ratelimit.minRpm", LOCAL ? LOCAL_RPM : "10"));
+    private static final double MAX_RPM =
+            Double.parseDouble(System.getProperty("ratelimit.maxRpm", LOCAL ? LOCAL_RPM : "6000"));
+    private static final int BURST = Integer.getInteger("ratelimit.burst", 10);
+
+    private static final AdaptiveRateLimiter LIMITER = new AdaptiveRateLimiter(
+            INITIAL_RPM,
+            Math.min(MIN_RPM, INITIAL_RPM),
+            Math.max(MAX_RPM, INITIAL_RPM),
+            BURST,
+            Double.parseDouble(System.getProperty("ratelimit.increaseRpm", "60")),
+            Double.parseDouble(System.getProperty("ratelimit.decrease", "0.5")),
+            Double.parseDouble(System.getProperty("ratelimit.spikeFactor", "3")),
+            Duration.ofMillis(Long.getLong("ratelimit.spikeFloorMs", 250L)),
+            SharedState.ENABLED ? SharedState.shared().bucketCell() : null);
+
+    private static final Metrics.Counter PERMITS = Metrics.shared().counter("carrefour_ratelimiter_permits_total",
+            "Permissões concedidas pelo limitador");
+    private static final Metrics.Histogram WAITS = Metrics.shared().histogram("carrefour_ratelimiter_wait_seconds",
+            "Espera por uma permissão do limitador", Metrics.SECONDS_BUCKETS);
+
+    static {
+        Metrics metrics = Metrics.shared();
+        metrics.gauge("carrefour_ratelimiter_rate_rpm", "Taxa atual do limitador, em requisições por minuto",
+                LIMITER::currentRpm);
+        metrics.counterFunction("carrefour_ratelimiter_decreases_total", "Reduções de taxa (429, 5xx, pico de latência)",
+                LIMITER::decreases);
+        metrics.counterFunction("carrefour_ratelimiter_pauses_total", "Pausas pedidas pela API (Retry-After, X-RateLimit-*)",
+                LIMITER::pauses);
+    }
 
     private RateLimiter() {
         // utilitário – não pode ser instanciado
@@ -21,30 +81,101 @@ public class RateLimiter {
 
     /**
      * Bloqueia a thread até que seja permitido fazer a próxima requisição.
-     * Deve ser chamado **antes** de cada chamada à API.
+     * Já é chamado pelo {@link #filter()}; use direto só fora do {@link ApiConfig#requestSpec()}.
      */
-    public static synchronized void acquire() {
-        long now = System.currentTimeMillis();
+    public static void acquire() {
+        if (Cassette.isReplay()) {
+            return;
+        }
+        acquireRecorded();
+    }
+
+    /**
+     * Versão não bloqueante além do prazo: obtém a permissão se ela sair em até
+     * {@code timeout}; caso contrário retorna {@code false} sem consumir nada.
+     */
+    public static boolean tryAcquire(Duration timeout) {
+        return Cassette.isReplay() || LIMITER.tryAcquire(timeout);
+    }
 
-        // Se a janela de 1 minuto terminou, reinicia a contagem
-        if (now - windowStart >= ONE_MINUTE_MS) {
-            windowStart = now;
-            requestCount = 0;
+    /**
+     * Permissão sem bloquear: o future completa quando a requisição pode sair, com a
+     * espera agendada em vez de dormida. Para clientes fora do RestAssured, como o
+     * {@link UsersApiClient}, que devolvem o resultado por {@link #onResponse}/{@link #onFailure()}.
+     */
+    public static CompletableFuture<Void> acquireAsync() {
+        FlightEvents.RateLimiterWait event = new FlightEvents.RateLimiterWait();
+        event.begin();
+        long waitNanos = Cassette.isReplay() ? 0L : LIMITER.reserve();
+        PERMITS.inc();
+        WAITS.observeNanos(waitNanos);
+        if (waitNanos <= 0) {
+            return CompletableFuture.completedFuture(null);
         }
+        return CompletableFuture.runAsync(() -> commit(event, true),
+                CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS));
+    }
+
+    /** Alimenta o limitador com uma resposta obtida fora do {@link #filter()}. */
+    public static void onResponse(int status, Headers headers, long latencyNanos) {
+        LIMITER.onResponse(status, headers, latencyNanos);
+    }
+
+    /** Falha de I/O obtida fora do {@link #filter()}. */
+    public static void onFailure() {
+        LIMITER.onFailure();
+    }
 
-        // Se já atingiu o limite, espera até o próximo minuto
-        if (requestCount >= MAX_REQUESTS_PER_MINUTE) {
-            long waitTime = ONE_MINUTE_MS - (now - windowStart);
+    /**
+     * Filtro que obtém a permissão antes da requisição e alimenta o limitador com o
+     * status, os cabeçalhos e a latência da resposta. Deve ser o primeiro da cadeia,
+     * para que a espera não conte como latência da API.
+     */
+    public static Filter filter() {
+        return (requestSpec, responseSpec, ctx) -> {
+            if (Cassette.isReplay()) {
+                return ctx.next(requestSpec, responseSpec);
+            }
+            acquireRecorded();
+            long start = System.nanoTime();
+            Response response;
             try {
-                Thread.sleep(waitTime);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+                response = ctx.next(requestSpec, responseSpec);
+            } catch (RuntimeException e) {
+                LIMITER.onFailure();
+                throw e;
             }
-            // Reinicia a janela após a espera
-            windowStart = System.currentTimeMillis();
-            requestCount = 0;
+            LIMITER.onResponse(response.getStatusCode(), response.getHeaders(), System.nanoTime() - start);
+            return response;
+        };
+    }
+
+    /** {@link AdaptiveRateLimiter#acquire()} dentro de um evento JFR {@link FlightEvents.RateLimiterWait}. */
+    private static void acquireRecorded() {
+        FlightEvents.RateLimiterWait event = new FlightEvents.RateLimiterWait();
+        event.begin();
+        long start = System.nanoTime();
+        LIMITER.acquire();
+        PERMITS.inc();
+        WAITS.observeNanos(System.nanoTime() - start);
+        commit(event, false);
+    }
+
+    private static void commit(FlightEvents.RateLimiterWait event, boolean async) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.rpm = LIMITER.currentRpm();
+            event.async = async;
+            event.commit();
         }
+    }
+
+    /** Taxa atual do limitador, em requisições por minuto. */
+    public static double currentRpm() {
+        return LIMITER.currentRpm();
+    }
 
-        requestCount++;
+    public static String summary() {
+        return LIMITER.summary();
     }
 }
@@ -0,0 +1,207 @@
+package com.carrefour.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.restassured.filter.Filter;
+import io.restassured.response.Response;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Registro de todos os usuários criados pela suíte.
+ *
+ * O {@link #filter()} (incluído em {@link ApiConfig#requestSpec()}) anota o {@code _id}
+ * de toda resposta 201 de {@code /usuarios} e o remove quando um DELETE dá 200. O
+ * registro fica em memória e também num arquivo append-only em {@code target/}
+ * ({@code +id} na criação, {@code -id} na remoção): se a execução for interrompida,
+ * a próxima encontra os IDs pendentes e os remove antes de começar.
+ *
+ * No fim da suíte são apagados exatamente os IDs pendentes, sem listar a base.
+ * No modo local não há recuperação: o stand-in morre junto com a JVM. Na reprodução de
+ * cassete ({@link Cassette}) os IDs são gravados, não reais: o registro usa um arquivo
+ * próprio e também não recupera nada.
+ *
+ * Configuração via system properties:
+ * <ul>
+ *   <li>{@code ledger.dir} – diretório do arquivo (padrão {@code target})</li>
+ *   <li>{@code test.fork} – número do fork do surefire; cada fork tem o seu arquivo</li>
+ * </ul>
+ */
+public final class ResourceLedger {
+
+    private static final Log LOG = Log.get("LEDGER");
+
+    private static final Path DIR = Path.of(System.getProperty("ledger.dir", "target"));
+    private static final String FORK = System.getProperty("test.fork");
+    private static final String USERS_PATH = "/usuarios";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static volatile ResourceLedger shared;
+
+    private final Path file;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final int recovered;
+    private final FileChannel channel;
+    /** Lock, e não monitor: a escrita é I/O e não deve prender a carregadora de uma thread virtual. */
+    private final ReentrantLock appendLock = new ReentrantLock();
+
+    private ResourceLedger(Path file, boolean recover) throws IOException {
+        this.file = file;
+        Files.createDirectories(file.getParent());
+        if (recover && Files.exists(file)) {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                if (line.startsWith("+")) {
+                    pending.add(line.substring(1));
+                } else if (line.startsWith("-")) {
+                    pending.remove(line.substring(1));
+                }
+            }
+        }
+        this.recovered = pending.size();
+        // Compacta: o arquivo novo começa só com o que ainda está pendente
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        for (String id : pending) {
+            append('+', id);
+        }
+    }
+
+    /** Registro da API alvo atual, aberto (e recuperado) na primeira chamada. */
+    public static ResourceLedger shared() {
+        ResourceLedger ledger = shared;
+        if (ledger == null) {
+            synchronized (ResourceLedger.class) {
+                ledger = shared;
+                if (ledger == null) {
+                    try {
+                        String name = "created-users-" + ApiConfig.targetKey() + (Cassette.isReplay() ? "-replay" : "")
+                                + (FORK != null ? "-fork" + FORK : "");
+                        ledger = new ResourceLedger(DIR.resolve(name + ".ledger"),
+                                !ApiConfig.isLocal() && !Cassette.isReplay());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Falha ao abrir o registro de usuários criados", e);
+                    }
+                    shared = ledger;
+                }
+            }
+        }
+        return ledger;
+    }
+
+    /** Registro já aberto nesta JVM, ou {@code null} se nenhum teste o usou. */
+    public static ResourceLedger current() {
+        return shared;
+    }
+
+    /**
+     * Filtro que alimenta o registro a partir das respostas: 201 em POST/PUT de
+     * {@code /usuarios} registra o {@code _id}; 200 em DELETE o remove.
+     */
+    public static Filter filter() {
+        return (requestSpec, responseSpec, ctx) -> {
+            Response response = ctx.next(requestSpec, responseSpec);
+            String path = pathOf(requestSpec.getURI());
+            if (path != null) {
+                record(requestSpec.getMethod(), path, response.getStatusCode(), response.asByteArray());
+            }
+            return response;
+        };
+    }
+
+    /** Mesma regra do {@link #filter()}, para respostas que não passam pelo RestAssured. */
+    static void record(String method, String path, int status, byte[] body) {
+        if (!path.startsWith(USERS_PATH)) {
+            return;
+        }
+        if (status == 201 && ("POST".equals(method) || "PUT".equals(method))) {
+            String id = idFrom(body);
+            if (id != null) {
+                shared().recordCreated(id);
+            }
+        } else if (status == 200 && "DELETE".equals(method) && path.length() > USERS_PATH.length() + 1) {
+            shared().recordDeleted(path.substring(path.lastIndexOf('/') + 1));
+        }
+    }
+
+    public void recordCreated(String id) {
+        if (pending.add(id)) {
+            append('+', id);
+        }
+    }
+
+    public void recordDeleted(String id) {
+        if (pending.remove(id)) {
+            append('-', id);
+        }
+    }
+
+    /** IDs criados e ainda não removidos (cópia). */
+    public Set<String> pending() {
+        return new LinkedHashSet<>(pending);
+    }
+
+    /** Quantos IDs pendentes vieram de uma execução anterior interrompida. */
+    public int recovered() {
+        return recovered;
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    /**
+     * Apaga todos os IDs pendentes com o {@link BulkDeleter}, pelo {@link UsersApiClient}
+     * (ou pelo RestAssured na reprodução de cassete). Os DELETEs passam pelo registro,
+     * então o que for removido sai dele e o que falhar fica para a próxima execução.
+     */
+    public BulkDeleter.Summary deletePending() {
+        if (Cassette.isReplay()) {
+            return BulkDeleter.defaults().deleteAll(ApiConfig.requestSpec(), null, pending());
+        }
+        return BulkDeleter.defaults().deleteAll(UsersApiClient.shared(), null, pending());
+    }
+
+    private void append(char op, String id) {
+        byte[] line = (op + id + "\n").getBytes(StandardCharsets.UTF_8);
+        try {
+            // Cada linha é um único write: threads concorrentes não intercalam registros
+            appendLock.lock();
+            try {
+                channel.write(ByteBuffer.wrap(line));
+            } finally {
+                appendLock.unlock();
+            }
+        } catch (IOException e) {
+            LOG.error("Falha ao gravar {}{} em {}: {}", op, id, file, e.getMessage());
+        }
+    }
+
+    private static String pathOf(String uri) {
+        try {
+            return URI.create(uri).getPath();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String idFrom(byte[] body) {
+        try {
+            JsonNode id = MAPPER.readTree(body).get("_id");
+            return id != null && id.isTextual() ? id.asText() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
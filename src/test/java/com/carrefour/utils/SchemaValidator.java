@@ -0,0 +1,393 @@
+package com.carrefour.utils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.restassured.filter.Filter;
+import io.restassured.response.Response;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+/**
+ * Validação do contrato das respostas de {@code /login} e {@code /usuarios} contra JSON
+ * Schemas em {@code src/test/resources/schemas}.
+ *
+ * O schema de uma resposta é {@code <método>-<caminho>-<status>.json} (ex.:
+ * {@code get-usuarios-id-200.json} para {@code GET /usuarios/{id}}); sem ele, um 4xx cai em
+ * {@code error-4xx.json} e as demais respostas não são validadas. Cada arquivo é compilado
+ * uma vez por JVM numa árvore de {@link Schema}, e a validação percorre o corpo já lido
+ * com o parser de streaming do Jackson. É um segundo parse dos mesmos bytes (o
+ * {@code jsonPath()} dos testes faz o seu), mas sem montar árvore: custa menos que um
+ * {@code readTree} (ver {@code SchemaValidationBenchmark}) e é desprezível frente à ida
+ * à rede, o que deixa a validação ligada também nas cargas.
+ *
+ * Só o subconjunto do JSON Schema usado pelos arquivos é suportado: {@code type},
+ * {@code properties}, {@code required}, {@code additionalProperties}, {@code items},
+ * {@code enum} (strings), {@code minLength}, {@code maxLength}, {@code pattern},
+ * {@code minimum}, {@code minItems}, {@code minProperties} e {@code $ref} para outro
+ * arquivo do diretório. Palavra-chave desconhecida falha na compilação, para um schema
+ * nunca validar menos do que diz.
+ *
+ * Entra em todas as chamadas: como filtro em {@link ApiConfig#requestSpec()} e no
+ * {@link UsersApiClient}. Cada resultado vai para {@code carrefour_schema_validations_total}
+ * nas {@link Metrics}.
+ *
+ * Configuração via system properties:
+ * <ul>
+ *   <li>{@code schema.validation} – {@code strict} (padrão: violação falha a chamada),
+ *       {@code warn} (só log e métrica) ou {@code off}</li>
+ * </ul>
+ */
+public final class SchemaValidator {
+
+    public enum Mode { STRICT, WARN, OFF }
+
+    public static final Mode MODE = Mode.valueOf(System.getProperty("schema.validation", "strict")
+            .trim().toUpperCase(Locale.ROOT));
+
+    private static final Log LOG = Log.get("SCHEMA");
+    private static final String DIR = "schemas/";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final JsonFactory FACTORY = MAPPER.getFactory();
+
+    /** Schemas por arquivo, compilados uma vez. */
+    private static final ConcurrentMap<String, Schema> BY_FILE = new ConcurrentHashMap<>();
+    /** Schema (ou nenhum) por "MÉTODO /caminho status". */
+    private static final ConcurrentMap<String, Optional<Schema>> BY_RESPONSE = new ConcurrentHashMap<>();
+    /** Respostas que já tiveram uma violação logada em WARN; as seguintes vão para DEBUG. */
+    private static final Set<String> WARNED = ConcurrentHashMap.newKeySet();
+
+    private SchemaValidator() {
+        // utilitário – não pode ser instanciado
+    }
+
+    /**
+     * Filtro que valida cada resposta RestAssured. Fica antes do {@link LatencyRecorder}:
+     * o tempo da validação não entra na latência medida.
+     */
+    public static Filter filter() {
+        return (requestSpec, responseSpec, ctx) -> {
+            Response response = ctx.next(requestSpec, responseSpec);
+            if (MODE != Mode.OFF) {
+                check(requestSpec.getMethod(),
+                        LatencyRecorder.templatedPath(requestSpec.getUserDefinedPath(), requestSpec.getURI()),
+                        response.getStatusCode(), response.asByteArray());
+            }
+            return response;
+        };
+    }
+
+    /**
+     * Valida {@code body} conforme o {@link #MODE}: em {@code strict} uma violação vira
+     * {@link AssertionError}, em {@code warn} só log.
+     *
+     * @param path caminho com template, ex.: {@code /usuarios/{id}}
+     */
+    public static void check(String method, String path, int status, byte[] body) {
+        if (MODE == Mode.OFF) {
+            return;
+        }
+        Optional<Schema> schema = schemaFor(method, path, status);
+        if (schema.isEmpty()) {
+            return;
+        }
+        List<String> violations = schema.get().validate(body);
+        Metrics.shared().counter("carrefour_schema_validations_total", "Respostas validadas contra o JSON Schema",
+                "method", method, "path", path, "status", Integer.toString(status),
+                "result", violations.isEmpty() ? "ok" : "violation").inc();
+        if (violations.isEmpty()) {
+            return;
+        }
+        String message = method + " " + path + " -> " + status + " fora do contrato: " + String.join("; ", violations);
+        if (MODE == Mode.STRICT) {
+            throw new AssertionError(message);
+        }
+        if (WARNED.add(method + " " + path + " " + status)) {
+            LOG.warn("{}", message);
+        } else {
+            LOG.debug("{}", message);
+        }
+    }
+
+    /** Schema da resposta, pela convenção de nomes (ver a documentação da classe). */
+    static Optional<Schema> schemaFor(String method, String path, int status) {
+        return BY_RESPONSE.computeIfAbsent(method + " " + path + " " + status, key -> {
+            String slug = path.replaceAll("^/+", "").replace("{", "").replace("}", "").replace('/', '-');
+            String file = method.toLowerCase(Locale.ROOT) + "-" + slug + "-" + status + ".json";
+            if (exists(file)) {
+                return Optional.of(compile(file));
+            }
+            return status >= 400 && status < 500 && exists("error-4xx.json")
+                    ? Optional.of(compile("error-4xx.json")) : Optional.empty();
+        });
+    }
+
+    /** Compila (ou devolve do cache) o schema {@code schemas/<file>}. */
+    public static Schema compile(String file) {
+        Schema cached = BY_FILE.get(file);
+        if (cached != null) {
+            return cached;
+        }
+        try (InputStream in = SchemaValidator.class.getClassLoader().getResourceAsStream(DIR + file)) {
+            if (in == null) {
+                throw new IllegalArgumentException("Schema não encontrado: " + DIR + file);
+            }
+            // Sem computeIfAbsent: um $ref compila outro arquivo durante a compilação
+            Schema compiled = Schema.compile(MAPPER.readTree(in), file);
+            Schema previous = BY_FILE.putIfAbsent(file, compiled);
+            return previous != null ? previous : compiled;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao ler " + DIR + file, e);
+        }
+    }
+
+    private static boolean exists(String file) {
+        return SchemaValidator.class.getClassLoader().getResource(DIR + file) != null;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════════
+    // SCHEMA COMPILADO
+    // ═══════════════════════════════════════════════════════════════════════════
+    private enum Type { OBJECT, ARRAY, STRING, INTEGER, NUMBER, BOOLEAN, NULL }
+
+    private static final Set<String> KEYWORDS = Set.of("$schema", "$id", "title", "description", "$ref", "type",
+            "properties", "required", "additionalProperties", "items", "enum", "minLength", "maxLength", "pattern",
+            "minimum", "minItems", "minProperties");
+
+    /** Um (sub)schema compilado; imutável depois da compilação e seguro entre threads. */
+    public static final class Schema {
+
+        /** {@code "additionalProperties": false}. */
+        private static final Schema FORBIDDEN = new Schema();
+
+        private EnumSet<Type> types;
+        private Map<String, Schema> properties = Map.of();
+        private String[] required = new String[0];
+        /** {@code null} = propriedades extras livres. */
+        private Schema additional;
+        private Schema items;
+        private Set<String> enumValues;
+        private int minLength = -1;
+        private int maxLength = -1;
+        private Pattern pattern;
+        private Double minimum;
+        private int minItems = -1;
+        private int minProperties = -1;
+
+        private Schema() {
+        }
+
+        private static Schema compile(JsonNode node, String file) {
+            if (!node.isObject()) {
+                throw new IllegalArgumentException(file + ": schema deve ser um objeto: " + node);
+            }
+            for (Iterator<String> names = node.fieldNames(); names.hasNext(); ) {
+                String name = names.next();
+                if (!KEYWORDS.contains(name)) {
+                    throw new IllegalArgumentException(file + ": palavra-chave não suportada: " + name);
+                }
+            }
+            if (node.has("$ref")) {
+                return SchemaValidator.compile(node.get("$ref").asText());
+            }
+            Schema schema = new Schema();
+            JsonNode type = node.get("type");
+            if (type != null) {
+                schema.types = EnumSet.noneOf(Type.class);
+                for (JsonNode t : type.isArray() ? type : MAPPER.createArrayNode().add(type)) {
+                    schema.types.add(Type.valueOf(t.asText().toUpperCase(Locale.ROOT)));
+                }
+            }
+            JsonNode properties = node.get("properties");
+            if (properties != null) {
+                Map<String, Schema> compiled = new HashMap<>();
+                properties.fields().forEachRemaining(e -> compiled.put(e.getKey(), compile(e.getValue(), file)));
+                schema.properties = Map.copyOf(compiled);
+            }
+            JsonNode required = node.get("required");
+            if (required != null) {
+                if (required.size() > Long.SIZE) {
+                    throw new IllegalArgumentException(file + ": no máximo " + Long.SIZE + " campos obrigatórios");
+                }
+                schema.required = new String[required.size()];
+                for (int i = 0; i < required.size(); i++) {
+                    schema.required[i] = required.get(i).asText();
+                }
+            }
+            JsonNode additional = node.get("additionalProperties");
+            if (additional != null) {
+                schema.additional = additional.isBoolean()
+                        ? (additional.asBoolean() ? null : FORBIDDEN)
+                        : compile(additional, file);
+            }
+            if (node.has("items")) {
+                schema.items = compile(node.get("items"), file);
+            }
+            JsonNode values = node.get("enum");
+            if (values != null) {
+                Set<String> allowed = new HashSet<>();
+                for (JsonNode value : values) {
+                    if (!value.isTextual()) {
+                        throw new IllegalArgumentException(file + ": enum só aceita strings: " + values);
+                    }
+                    allowed.add(value.asText());
+                }
+                schema.enumValues = Set.copyOf(allowed);
+            }
+            schema.minLength = node.path("minLength").asInt(-1);
+            schema.maxLength = node.path("maxLength").asInt(-1);
+            schema.pattern = node.has("pattern") ? Pattern.compile(node.get("pattern").asText()) : null;
+            schema.minimum = node.has("minimum") ? node.get("minimum").asDouble() : null;
+            schema.minItems = node.path("minItems").asInt(-1);
+            schema.minProperties = node.path("minProperties").asInt(-1);
+            return schema;
+        }
+
+        /** Violações de {@code body} (vazia = dentro do contrato). */
+        public List<String> validate(byte[] body) {
+            List<String> violations = new ArrayList<>();
+            try (JsonParser parser = FACTORY.createParser(body)) {
+                if (parser.nextToken() == null) {
+                    violations.add("corpo vazio");
+                } else {
+                    validate(parser, new StringBuilder("$"), violations);
+                }
+            } catch (IOException e) {
+                violations.add("corpo não é JSON: " + e.getMessage().lines().findFirst().orElse(""));
+            }
+            return violations;
+        }
+
+        /**
+         * Valida o valor no token atual e deixa o parser no último token dele. {@code at} é o
+         * caminho até o valor, estendido e restaurado no lugar: só vira String numa violação.
+         */
+        private void validate(JsonParser parser, StringBuilder at, List<String> violations) throws IOException {
+            JsonToken token = parser.currentToken();
+            Type type = typeOf(token);
+            if (types != null && !types.contains(type) && !(type == Type.INTEGER && types.contains(Type.NUMBER))) {
+                violations.add(at + ": esperado " + types.toString().toLowerCase(Locale.ROOT)
+                        + ", obtido " + type.name().toLowerCase(Locale.ROOT));
+                parser.skipChildren();
+                return;
+            }
+            switch (type) {
+                case OBJECT -> validateObject(parser, at, violations);
+                case ARRAY -> validateArray(parser, at, violations);
+                case STRING -> validateString(parser.getText(), at, violations);
+                case INTEGER, NUMBER -> {
+                    if (enumValues != null) {
+                        violations.add(at + ": fora de " + enumValues);
+                    }
+                    if (minimum != null && parser.getDoubleValue() < minimum) {
+                        violations.add(at + ": menor que " + minimum);
+                    }
+                }
+                default -> {
+                    if (enumValues != null) {
+                        violations.add(at + ": fora de " + enumValues);
+                    }
+                }
+            }
+        }
+
+        private void validateObject(JsonParser parser, StringBuilder at, List<String> violations) throws IOException {
+            long seen = 0L;
+            int count = 0;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                parser.nextToken();
+                count++;
+                for (int i = 0; i < required.length; i++) {
+                    if (required[i].equals(name)) {
+                        seen |= 1L << i;
+                    }
+                }
+                Schema property = properties.get(name);
+                if (property == null) {
+                    property = additional;
+                }
+                int mark = at.length();
+                at.append('.').append(name);
+                if (property == FORBIDDEN) {
+                    violations.add(at + ": campo não previsto");
+                    parser.skipChildren();
+                } else if (property != null) {
+                    property.validate(parser, at, violations);
+                } else {
+                    parser.skipChildren();
+                }
+                at.setLength(mark);
+            }
+            for (int i = 0; i < required.length; i++) {
+                if ((seen & (1L << i)) == 0) {
+                    violations.add(at + "." + required[i] + ": obrigatório");
+                }
+            }
+            if (count < minProperties) {
+                violations.add(at + ": mínimo de " + minProperties + " campos, obtido " + count);
+            }
+        }
+
+        private void validateArray(JsonParser parser, StringBuilder at, List<String> violations) throws IOException {
+            int index = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (items != null) {
+                    int mark = at.length();
+                    items.validate(parser, at.append('[').append(index).append(']'), violations);
+                    at.setLength(mark);
+                } else {
+                    parser.skipChildren();
+                }
+                index++;
+            }
+            if (index < minItems) {
+                violations.add(at + ": mínimo de " + minItems + " itens, obtido " + index);
+            }
+        }
+
+        private void validateString(String value, StringBuilder at, List<String> violations) {
+            if (enumValues != null && !enumValues.contains(value)) {
+                violations.add(at + ": \"" + value + "\" fora de " + enumValues);
+            }
+            if (minLength >= 0 && value.codePointCount(0, value.length()) < minLength) {
+                violations.add(at + ": mínimo de " + minLength + " caracteres");
+            }
+            if (maxLength >= 0 && value.codePointCount(0, value.length()) > maxLength) {
+                violations.add(at + ": máximo de " + maxLength + " caracteres");
+            }
+            if (pattern != null && !pattern.matcher(value).find()) {
+                violations.add(at + ": \"" + value + "\" não casa com " + pattern.pattern());
+            }
+        }
+
+        private static Type typeOf(JsonToken token) {
+            return switch (token) {
+                case START_OBJECT -> Type.OBJECT;
+                case START_ARRAY -> Type.ARRAY;
+                case VALUE_STRING -> Type.STRING;
+                case VALUE_NUMBER_INT -> Type.INTEGER;
+                case VALUE_NUMBER_FLOAT -> Type.NUMBER;
+                case VALUE_TRUE, VALUE_FALSE -> Type.BOOLEAN;
+                default -> Type.NULL;
+            };
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.carrefour.utils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Estado compartilhado por todas as JVMs da máquina (forks do surefire, jobs de CI
+ * paralelos) num arquivo mapeado em memória em {@code target/}.
+ *
+ * <ul>
+ *   <li><b>Token bucket global</b>: o TAT do {@link TokenBucket} é um {@code long} do
+ *       arquivo, atualizado por CAS ({@link VarHandle}) sem lock. O relógio é o epoch em
+ *       nanossegundos, comum a todos os processos.</li>
+ *   <li><b>JWT em cache</b>: {@value #TOKEN_SLOTS} slots (token + expiração) indexados pelo
+ *       hash de {@code baseUri + usuário}. Cada slot é protegido por um {@link FileLock} da
+ *       sua região; quem encontra o slot vazio ou vencido faz o login segurando o lock,
+ *       então só uma JVM loga e as demais reaproveitam o token.</li>
+ * </ul>
+ *
+ * Dois usuários no mesmo slot não se atrapalham: enquanto o token do primeiro for
+ * válido, o segundo não é compartilhado e cada JVM faz o próprio login.
+ *
+ * Configuração via system properties:
+ * <ul>
+ *   <li>{@code shared.state} – {@code true} liga o compartilhamento (padrão {@code false})</li>
+ *   <li>{@code shared.state.dir} – diretório do arquivo (padrão {@code target})</li>
+ * </ul>
+ */
+public final class SharedState {
+
+    public static final boolean ENABLED = Boolean.getBoolean("shared.state");
+
+    private static final Path DIR = Path.of(System.getProperty("shared.state.dir", "target"));
+    private static final Log LOG = Log.get("SHARED");
+
+    // ═══════════════════════════════════════════════════════════════════════════
+    // LAYOUT DO ARQUIVO
+    // ═══════════════════════════════════════════════════════════════════════════
+    private static final int MAGIC = 0x43_52_46_31; // "CRF1"
+    private static final int MAGIC_OFFSET = 0;
+    private static final int HEADER_SIZE = 64;
+    /** TAT do bucket global, sozinho na sua linha de cache. */
+    private static final int BUCKET_TAT_OFFSET = 64;
+    private static final int TOKENS_OFFSET = 4096;
+    private static final int TOKEN_SLOTS = 64;
+    private static final int SLOT_SIZE = 2048;
+    private static final int MAX_KEY_BYTES = 256;
+    // slot: [keyLen:int][key:256][tokenLen:int][token...][expiresAtMillis:long no fim]
+    private static final int SLOT_TOKEN_LEN = 4 + MAX_KEY_BYTES;
+    private static final int SLOT_TOKEN = SLOT_TOKEN_LEN + 4;
+    private static final int SLOT_EXPIRES = SLOT_SIZE - 8;
+    private static final int MAX_TOKEN_BYTES = SLOT_EXPIRES - SLOT_TOKEN;
+    private static final int FILE_SIZE = TOKENS_OFFSET + TOKEN_SLOTS * SLOT_SIZE;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    /** Converte {@link System#nanoTime()} em epoch (ns), o relógio comum entre processos. */
+    private static final long EPOCH_OFFSET_NANOS = System.currentTimeMillis() * 1_000_000L - System.nanoTime();
+
+    private static volatile SharedState shared;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    /** FileLock é por processo: threads da mesma JVM se coordenam antes por aqui. */
+    private final ReentrantLock[] slotLocks = new ReentrantLock[TOKEN_SLOTS];
+
+    public SharedState(Path file) throws IOException {
+        this.file = file;
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try (FileLock ignored = channel.lock(MAGIC_OFFSET, HEADER_SIZE, false)) {
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, FILE_SIZE);
+            if (buffer.getInt(MAGIC_OFFSET) != MAGIC) {
+                // Arquivo novo (ou de outro formato): zera tudo antes de publicar o cabeçalho
+                for (int i = HEADER_SIZE; i < FILE_SIZE; i += 8) {
+                    buffer.putLong(i, 0L);
+                }
+                buffer.putInt(MAGIC_OFFSET, MAGIC);
+                buffer.force();
+            }
+        }
+        for (int i = 0; i < TOKEN_SLOTS; i++) {
+            slotLocks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Estado compartilhado da API alvo atual, ou {@code null} se {@code shared.state}
+     * estiver desligado.
+     */
+    public static SharedState shared() {
+        if (!ENABLED) {
+            return null;
+        }
+        SharedState state = shared;
+        if (state == null) {
+            synchronized (SharedState.class) {
+                state = shared;
+                if (state == null) {
+                    Path path = DIR.resolve("shared-state-" + ApiConfig.targetKey() + ".mmap");
+                    try {
+                        state = new SharedState(path);
+                        LOG.info("Estado compartilhado entre JVMs em {}", path);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Falha ao abrir o estado compartilhado " + path, e);
+                    }
+                    shared = state;
+                }
+            }
+        }
+        return state;
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════════
+    // TOKEN BUCKET GLOBAL
+    // ═══════════════════════════════════════════════════════════════════════════
+    /** Célula do TAT do bucket global, para {@link TokenBucket#TokenBucket(double, int, TokenBucket.Cell)}. */
+    public TokenBucket.Cell bucketCell() {
+        return new TokenBucket.Cell() {
+            @Override
+            public long now() {
+                return System.nanoTime() + EPOCH_OFFSET_NANOS;
+            }
+
+            @Override
+            public long get() {
+                return (long) LONGS.getVolatile(buffer, BUCKET_TAT_OFFSET);
+            }
+
+            @Override
+            public boolean compareAndSet(long expected, long value) {
+                return LONGS.compareAndSet(buffer, BUCKET_TAT_OFFSET, expected, value);
+            }
+        };
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════════
+    // JWT EM CACHE
+    // ═══════════════════════════════════════════════════════════════════════════
+    /**
+     * Token de {@code key} gravado por qualquer JVM, se {@code fresh} o aceitar; senão
+     * chama {@code login} (com o slot travado para as outras JVMs) e grava o resultado.
+     *
+     * @return o token compartilhado ou o do login (que pode ser {@code null} se falhar)
+     */
+    public JwtProvider.CachedToken token(String key, Predicate<JwtProvider.CachedToken> fresh,
+                                         Supplier<JwtProvider.CachedToken> login) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        if (keyBytes.length > MAX_KEY_BYTES) {
+            return login.get();
+        }
+        int slot = Math.floorMod(key.hashCode(), TOKEN_SLOTS);
+        int base = TOKENS_OFFSET + slot * SLOT_SIZE;
+        ReentrantLock local = slotLocks[slot];
+        local.lock();
+        try (FileLock ignored = channel.lock(base, SLOT_SIZE, false)) {
+            int storedKeyLength = buffer.getInt(base);
+            boolean mine = storedKeyLength == 0 || matches(base, keyBytes);
+            if (storedKeyLength != 0 && mine) {
+                JwtProvider.CachedToken stored = read(base);
+                if (isFresh(stored, fresh)) {
+                    return stored;
+                }
+            }
+            JwtProvider.CachedToken token = login.get();
+            // Slot de outro usuário só é tomado quando o token dele já venceu
+            if (token != null && (mine || !isFresh(read(base), fresh))) {
+                write(base, keyBytes, token);
+            }
+            return token;
+        } catch (IOException e) {
+            LOG.warn("Sem acesso ao slot de token em {}: {}", file, e.getMessage());
+            return login.get();
+        } finally {
+            local.unlock();
+        }
+    }
+
+    private static boolean isFresh(JwtProvider.CachedToken token, Predicate<JwtProvider.CachedToken> fresh) {
+        return token != null && fresh.test(token);
+    }
+
+    private boolean matches(int base, byte[] keyBytes) {
+        if (buffer.getInt(base) != keyBytes.length) {
+            return false;
+        }
+        for (int i = 0; i < keyBytes.length; i++) {
+            if (buffer.get(base + 4 + i) != keyBytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private JwtProvider.CachedToken read(int base) {
+        int length = buffer.getInt(base + SLOT_TOKEN_LEN);
+        if (length <= 0 || length > MAX_TOKEN_BYTES) {
+            return null;
+        }
+        byte[] token = new byte[length];
+        buffer.get(base + SLOT_TOKEN, token);
+        return new JwtProvider.CachedToken(new String(token, StandardCharsets.UTF_8), buffer.getLong(base + SLOT_EXPIRES));
+    }
+
+    private void write(int base, byte[] keyBytes, JwtProvider.CachedToken token) {
+        byte[] value = token.value().getBytes(StandardCharsets.UTF_8);
+        if (value.length > MAX_TOKEN_BYTES) {
+            return;
+        }
+        buffer.putInt(base, keyBytes.length);
+        buffer.put(base + 4, keyBytes);
+        buffer.putInt(base + SLOT_TOKEN_LEN, value.length);
+        buffer.put(base + SLOT_TOKEN, value);
+        buffer.putLong(base + SLOT_EXPIRES, token.expiresAtMillis());
+    }
+}
@@ -0,0 +1,73 @@
+package com.carrefour.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gera e-mails, nomes e senhas únicos para os dados criados pelos testes.
+ *
+ * Formato: {@code <prefixo>-<execução>-<sequência>@qa.com}. A execução combina o
+ * instante de início e o PID da JVM (em base 36), então forks paralelos do surefire
+ * e execuções seguidas nunca colidem. A sequência vem de blocos reservados num
+ * {@code AtomicLong} global e consumidos por thread, sem {@code UUID.randomUUID()}
+ * (que passa por um {@code SecureRandom} compartilhado) e sem contenção entre threads.
+ */
+public final class TestIdentity {
+
+    private static final String RUN = Long.toString(System.currentTimeMillis(), 36)
+            + "p" + Long.toString(ProcessHandle.current().pid(), 36);
+    private static final String DOMAIN = "@qa.com";
+    private static final int BLOCK_SIZE = 1024;
+
+    private static final AtomicLong NEXT_BLOCK = new AtomicLong();
+    private static final ThreadLocal<Block> BLOCK = ThreadLocal.withInitial(Block::new);
+
+    private TestIdentity() {
+        // utilitário – não pode ser instanciado
+    }
+
+    /** Identificador desta execução (instante de início + PID, base 36). */
+    public static String runId() {
+        return RUN;
+    }
+
+    /** Próximo número da sequência, único dentro da execução. */
+    public static long nextSequence() {
+        return BLOCK.get().next();
+    }
+
+    /** E-mail único: {@code <prefixo>-<execução>-<sequência>@qa.com}. */
+    public static String email(String prefix) {
+        return unique(prefix, '-').append(DOMAIN).toString();
+    }
+
+    /** Nome único: {@code <prefixo> <execução>-<sequência>}. */
+    public static String name(String prefix) {
+        return unique(prefix, ' ').toString();
+    }
+
+    /** Senha única que atende à regra de tamanho mínimo da API. */
+    public static String password() {
+        return unique("Pw", '-').toString();
+    }
+
+    private static StringBuilder unique(String prefix, char separator) {
+        String sequence = Long.toString(nextSequence(), 36);
+        return new StringBuilder(prefix.length() + RUN.length() + sequence.length() + 2 + DOMAIN.length())
+                .append(prefix).append(separator).append(RUN).append('-').append(sequence);
+    }
+
+    /** Faixa de {@link #BLOCK_SIZE} números reservada por uma thread. */
+    private static final class Block {
+
+        private long next;
+        private long limit;
+
+        long next() {
+            if (next == limit) {
+                next = NEXT_BLOCK.getAndAdd(BLOCK_SIZE);
+                limit = next + BLOCK_SIZE;
+            }
+            return next++;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.carrefour.utils;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Token bucket sem locks, implementado como GCRA (Generic Cell Rate Algorithm).
+ *
+ * Todo o estado cabe em um único {@code long}: o "instante teórico de chegada"
+ * (TAT) da próxima permissão, em {@link System#nanoTime()}. Cada chamada reserva
+ * sua permissão com um laço de CAS e só depois espera — fora de qualquer monitor —
+ * até o instante reservado. Assim nenhuma thread fica presa atrás de outra que
+ * está dormindo, e rajadas nunca passam de {@code burst} permissões.
+ *
+ * A taxa pode ser trocada em execução ({@link #setRate(double)}), e o bucket pode ser
+ * pausado por um tempo ({@link #pause(long)}); é o que o {@link RateLimiter}
+ * faz ao se adaptar às respostas da API.
+ *
+ * O TAT fica numa {@link Cell}: por padrão um {@link AtomicLong} da JVM; com o
+ * {@link SharedState} ligado, um {@code long} num arquivo mapeado em memória, disputado
+ * por CAS entre todas as JVMs da máquina.
+ */
+public final class TokenBucket {
+
+    /** Valor devolvido por {@link #reserve(long)} quando a espera excede o limite. */
+    static final long REJECTED = -1L;
+
+    private final Cell theoreticalArrival;
+    private final int burst;
+    private volatile Rate rate;
+
+    /**
+     * @param permitsPerSecond taxa sustentada de permissões por segundo
+     * @param burst            quantas permissões podem ser concedidas de uma vez
+     */
+    public TokenBucket(double permitsPerSecond, int burst) {
+        this(permitsPerSecond, burst, new LocalCell());
+    }
+
+    /**
+     * Bucket cujo TAT fica em {@code cell}, possivelmente compartilhada com outros buckets
+     * (e outras JVMs): todos juntos respeitam a taxa e a rajada.
+     */
+    public TokenBucket(double permitsPerSecond, int burst, Cell cell) {
+        if (burst < 1) {
+            throw new IllegalArgumentException("burst deve ser >= 1: " + burst);
+        }
+        this.burst = burst;
+        this.rate = Rate.of(permitsPerSecond, burst);
+        this.theoreticalArrival = cell;
+    }
+
+    /** Cria um bucket com {@code permits} permissões por minuto. */
+    public static TokenBucket perMinute(int permits, int burst) {
+        return new TokenBucket(permits / 60.0, burst);
+    }
+
+    /**
+     * Bloqueia até obter uma permissão. A espera acontece fora de qualquer lock;
+     * se a thread for interrompida, a flag de interrupção é restaurada e o método retorna.
+     */
+    public void acquire() {
+        long waitNanos = reserve(Long.MAX_VALUE);
+        if (waitNanos > 0) {
+            parkNanos(waitNanos);
+        }
+    }
+
+    /** Obtém uma permissão apenas se ela estiver disponível imediatamente. */
+    public boolean tryAcquire() {
+        return tryAcquire(Duration.ZERO);
+    }
+
+    /**
+     * Obtém uma permissão se ela puder ser concedida dentro de {@code timeout}.
+     * Quando a espera necessária é maior, retorna {@code false} sem consumir nada.
+     */
+    public boolean tryAcquire(Duration timeout) {
+        long waitNanos = reserve(timeout.toNanos());
+        if (waitNanos == REJECTED) {
+            return false;
+        }
+        if (waitNanos > 0) {
+            parkNanos(waitNanos);
+        }
+        return true;
+    }
+
+    /** Intervalo entre permissões na taxa sustentada, em nanossegundos. */
+    public long intervalNanos() {
+        return rate.intervalNanos();
+    }
+
+    /** Taxa sustentada atual, em permissões por segundo. */
+    public double permitsPerSecond() {
+        return (double) TimeUnit.SECONDS.toNanos(1) / rate.intervalNanos();
+    }
+
+    /** Troca a taxa sustentada; vale a partir da próxima reserva, a rajada continua a mesma. */
+    public void setRate(double permitsPerSecond) {
+        this.rate = Rate.of(permitsPerSecond, burst);
+    }
+
+    /**
+     * Nenhuma permissão é concedida nos próximos {@code pauseNanos}. Reservas já feitas
+     * não mudam; usado quando o servidor pede uma pausa.
+     */
+    public void pause(long pauseNanos) {
+        long deadlineNanos = theoreticalArrival.now() + pauseNanos;
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long target = deadlineNanos + rate.burstToleranceNanos();
+            if (tat - target >= 0 || theoreticalArrival.compareAndSet(tat, target)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reserva uma permissão e devolve quantos nanossegundos o chamador deve esperar
+     * antes de usá-la, ou {@link #REJECTED} se a espera passar de {@code maxWaitNanos}.
+     */
+    long reserve(long maxWaitNanos) {
+        long now = theoreticalArrival.now();
+        Rate current = rate;
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long base = tat - now < 0 ? now : tat;
+            long waitNanos = Math.max(0L, base - current.burstToleranceNanos() - now);
+            if (waitNanos > maxWaitNanos) {
+                return REJECTED;
+            }
+            if (theoreticalArrival.compareAndSet(tat, base + current.intervalNanos())) {
+                return waitNanos;
+            }
+        }
+    }
+
+    private static void parkNanos(long waitNanos) {
+        long deadline = System.nanoTime() + waitNanos;
+        long remaining = waitNanos;
+        while (remaining > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            remaining = deadline - System.nanoTime();
+        }
+    }
+
+    /** Intervalo e tolerância de rajada lidos juntos, numa única leitura volátil. */
+    private record Rate(long intervalNanos, long burstToleranceNanos) {
+
+        static Rate of(double permitsPerSecond, int burst) {
+            if (permitsPerSecond <= 0 || Double.isNaN(permitsPerSecond)) {
+                throw new IllegalArgumentException("permitsPerSecond deve ser > 0: " + permitsPerSecond);
+            }
+            long intervalNanos = Math.max(1L, Math.round(TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+            return new Rate(intervalNanos, (burst - 1) * intervalNanos);
+        }
+    }
+
+    /**
+     * Onde mora o TAT, junto com o relógio em que ele é medido: células compartilhadas
+     * entre JVMs precisam de um relógio comum, já que a origem de {@link System#nanoTime()}
+     * é própria de cada processo.
+     */
+    public interface Cell {
+
+        /** Instante atual, em nanossegundos, no relógio da célula. */
+        long now();
+
+        long get();
+
+        boolean compareAndSet(long expected, long value);
+    }
+
+    /** Célula da própria JVM: {@link AtomicLong} + {@link System#nanoTime()}. */
+    private static final class LocalCell extends AtomicLong implements Cell {
+
+        LocalCell() {
+            super(System.nanoTime());
+        }
+
+        @Override
+        public long now() {
+            return System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.carrefour.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.restassured.http.Header;
+import io.restassured.http.Headers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cliente assíncrono de {@code /login} e {@code /usuarios} sobre {@link HttpClient}.
+ *
+ * Cada chamada devolve um {@link CompletableFuture} sem prender thread enquanto a
+ * resposta não chega: poucas threads mantêm milhares de requisições em voo. Todas as
+ * instâncias usam o mesmo {@link HttpClient}, que negocia HTTP/2 (ALPN no HTTPS) e cai
+ * para HTTP/1.1 quando o servidor não suporta — caso do stand-in.
+ *
+ * As requisições passam pelo mesmo caminho das feitas via {@link ApiConfig#requestSpec()}:
+ * {@link RateLimiter} (a espera também é assíncrona), {@link LatencyRecorder},
+ * {@link Metrics}, {@link ResourceLedger}, {@link SchemaValidator} e a linha DEBUG do
+ * logger {@code HTTP}. Só o {@link Cassette} fica de fora; na reprodução use a API
+ * RestAssured.
+ *
+ * Usado pelo gerador de carga e pela limpeza em lote; os testes continuam no RestAssured.
+ * Contra servidores falsos dos testes unitários use {@link #standalone(String)}, que não
+ * passa por nenhum desses registros globais.
+ *
+ * Configuração via system properties:
+ * <ul>
+ *   <li>{@code http.async.threads} – threads que tratam as respostas (padrão 2 × núcleos)</li>
+ *   <li>{@code http.async.timeoutMs} – prazo de cada requisição (padrão 30000)</li>
+ * </ul>
+ */
+public final class UsersApiClient {
+
+    private static final Log HTTP_LOG = Log.get("HTTP");
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final Duration TIMEOUT = Duration.ofMillis(Long.getLong("http.async.timeoutMs", 30_000L));
+    private static final ExecutorService EXECUTOR = newExecutor(
+            Integer.getInteger("http.async.threads", 2 * Runtime.getRuntime().availableProcessors()));
+    private static final HttpClient CLIENT = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(Duration.ofSeconds(10))
+            .executor(EXECUTOR)
+            .build();
+
+    private static volatile UsersApiClient shared;
+
+    private final String baseUri;
+    /** {@code false} = sem limitador, latência, métricas, JFR, ledger nem schema. */
+    private final boolean instrumented;
+
+    public UsersApiClient(String baseUri) {
+        this(baseUri, true);
+    }
+
+    private UsersApiClient(String baseUri, boolean instrumented) {
+        this.baseUri = baseUri.endsWith("/") ? baseUri.substring(0, baseUri.length() - 1) : baseUri;
+        this.instrumented = instrumented;
+    }
+
+    /**
+     * Cliente que não toca o estado da suíte: os 503 propositais de um servidor falso não
+     * derrubam a taxa do {@link RateLimiter} nem entram no relatório de latência ou nas
+     * {@link Metrics}.
+     */
+    public static UsersApiClient standalone(String baseUri) {
+        return new UsersApiClient(baseUri, false);
+    }
+
+    /** Cliente da API alvo atual ({@link ApiConfig#baseUri()}). */
+    public static UsersApiClient shared() {
+        UsersApiClient client = shared;
+        if (client == null) {
+            synchronized (UsersApiClient.class) {
+                client = shared;
+                if (client == null) {
+                    client = new UsersApiClient(ApiConfig.baseUri());
+                    shared = client;
+                }
+            }
+        }
+        return client;
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════════
+    // OPERAÇÕES
+    // ═══════════════════════════════════════════════════════════════════════════
+    public CompletableFuture<ApiResponse> login(String email, String password) {
+        String json = "{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}";
+        return send("POST", "/login", json, null);
+    }
+
+    public CompletableFuture<ApiResponse> create(String json, String token) {
+        return send("POST", "/usuarios", json, token);
+    }
+
+    public CompletableFuture<ApiResponse> get(String id) {
+        return send("GET", "/usuarios/" + id, null, null);
+    }
+
+    public CompletableFuture<ApiResponse> list() {
+        return send("GET", "/usuarios", null, null);
+    }
+
+    public CompletableFuture<ApiResponse> update(String id, String json, String token) {
+        return send("PUT", "/usuarios/" + id, json, token);
+    }
+
+    /** O token é opcional: a Serverest aceita DELETE sem autenticação. */
+    public CompletableFuture<ApiResponse> delete(String id, String token) {
+        return send("DELETE", "/usuarios/" + id, null, token);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════════════
+    // ENVIO
+    // ═══════════════════════════════════════════════════════════════════════════
+    private CompletableFuture<ApiResponse> send(String method, String path, String json, String token) {
+        URI uri = URI.create(baseUri + path);
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .timeout(TIMEOUT)
+                .method(method, json == null
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(json));
+        if (json != null) {
+            builder.header("Content-Type", "application/json");
+        }
+        if (token != null) {
+            builder.header("Authorization", token.startsWith("Bearer ") ? token : "Bearer " + token);
+        }
+        HttpRequest request = builder.build();
+        if (!instrumented) {
+            return CLIENT.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                    .thenApply(response -> new ApiResponse(response.statusCode(), response.body(), response.version()));
+        }
+        String endpoint = method + " " + LatencyRecorder.templatedPath(null, uri.toString());
+
+        return RateLimiter.acquireAsync().thenCompose(ignored -> {
+            FlightEvents.HttpRequest event = new FlightEvents.HttpRequest();
+            event.begin();
+            long start = System.nanoTime();
+            return CLIENT.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                    .handle((response, error) -> {
+                        long end = System.nanoTime();
+                        long elapsed = end - start;
+                        commit(event, method, endpoint, json, response);
+                        Metrics.recordRequest(method, endpoint.substring(method.length() + 1),
+                                response != null ? response.statusCode() : 0, elapsed);
+                        if (error != null) {
+                            LatencyRecorder.recordSuite(endpoint, start, end, false);
+                            RateLimiter.onFailure();
+                            throw error instanceof CompletionException ce ? ce : new CompletionException(error);
+                        }
+                        int status = response.statusCode();
+                        LatencyRecorder.recordSuite(endpoint, start, end, status < 500);
+                        RateLimiter.onResponse(status, headersOf(response.headers()), elapsed);
+                        ResourceLedger.record(method, uri.getPath(), status, response.body());
+                        SchemaValidator.check(method, endpoint.substring(method.length() + 1), status, response.body());
+                        if (HTTP_LOG.isDebugEnabled()) {
+                            HTTP_LOG.debug("{} {} -> {} ({} ms, {})", method, uri, status,
+                                    TimeUnit.NANOSECONDS.toMillis(elapsed), response.version());
+                        }
+                        return new ApiResponse(status, response.body(), response.version());
+                    });
+        });
+    }
+
+    private static void commit(FlightEvents.HttpRequest event, String method, String endpoint, String json,
+                               HttpResponse<byte[]> response) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.method = method;
+            event.path = endpoint.substring(method.length() + 1);
+            event.requestBytes = json == null ? 0L : json.getBytes(StandardCharsets.UTF_8).length;
+            if (response != null) {
+                event.status = response.statusCode();
+                event.responseBytes = response.body().length;
+                event.client = "java.net.http " + response.version();
+            } else {
+                event.client = "java.net.http";
+            }
+            event.commit();
+        }
+    }
+
+    /** Só os cabeçalhos que o {@link RateLimiter} lê. */
+    private static Headers headersOf(HttpHeaders headers) {
+        List<Header> relevant = new ArrayList<>(3);
+        for (String name : List.of("Retry-After", "X-RateLimit-Remaining", "X-RateLimit-Reset")) {
+            headers.firstValue(name).ifPresent(value -> relevant.add(new Header(name, value)));
+        }
+        return new Headers(relevant);
+    }
+
+    private static ExecutorService newExecutor(int threads) {
+        AtomicInteger seq = new AtomicInteger();
+        return Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread thread = new Thread(r, "http-async-" + seq.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** Resposta já lida por completo. */
+    public record ApiResponse(int status, byte[] body, HttpClient.Version version) {
+
+        public JsonNode json() {
+            try {
+                return MAPPER.readTree(body);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Corpo não é JSON (status " + status + ")", e);
+            }
+        }
+
+        /** {@code _id} do corpo, ou {@code null}. */
+        public String id() {
+            JsonNode id = json().get("_id");
+            return id != null && id.isTextual() ? id.asText() : null;
+        }
+
+        /** Campo {@code authorization} de uma resposta de login, ou {@code null}. */
+        public String authorization() {
+            JsonNode token = json().get("authorization");
+            return token != null && token.isTextual() ? token.asText() : null;
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.carrefour.load;
+
+import com.carrefour.extensions.Principal;
+import com.carrefour.extensions.TokenPool;
+import com.carrefour.flows.UserCrudFlow;
+import com.carrefour.server.ServerestStandIn;
+import com.carrefour.utils.ApiConfig;
+import com.carrefour.utils.Log;
+import com.carrefour.utils.Metrics;
+import com.carrefour.utils.TestIdentity;
+import com.carrefour.utils.UsersApiClient;
+import com.carrefour.utils.UsersApiClient.ApiResponse;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Usuários virtuais em malha fechada (closed loop), um por thread virtual (perfil {@code java21}).
+ *
+ * Cada usuário repete o fluxo CRUD (mesmos corpos do {@link UserCrudFlow}) em código
+ * bloqueante, com uma pausa ({@code load.thinkMs}) entre os fluxos. Bloquear é barato
+ * numa thread virtual: enquanto espera a resposta, o limitador ou uma vaga, ela sai da
+ * thread carregadora. Para comparar, {@code load.threads=platform} roda os mesmos
+ * usuários com uma thread de plataforma cada.
+ *
+ * As chamadas usam o {@link UsersApiClient} com {@code join()}, e não o RestAssured: o
+ * pool do HttpClient 4 espera conexão num {@code Condition.await} dentro de um bloco
+ * {@code synchronized} ({@code AbstractConnPool$2.get}), o que prende a carregadora;
+ * com poucos núcleos os usuários param todos. Para não abrir uma conexão por usuário,
+ * no máximo {@code load.connections} requisições ficam em voo. A espera por essa vaga
+ * sai das latências das chamadas e do fluxo e é reportada à parte ({@value #QUEUE}, por
+ * fluxo): acima de {@code load.connections} usuários ela cresce com o degrau qualquer
+ * que seja o executor.
+ *
+ * Com vários valores em {@code load.users} a execução vira uma escada (ex.: 10 → 10 000
+ * usuários) e termina com uma tabela de escalabilidade: fluxos/s, percentis do fluxo,
+ * percentis da fila e pico de threads de plataforma da JVM em cada degrau.
+ *
+ * Configuração via system properties:
+ * <ul>
+ *   <li>{@code load.users} – usuários simultâneos, separados por vírgula (padrão {@code 10,100,1000,10000})</li>
+ *   <li>{@code load.duration} – duração de cada degrau em segundos (padrão 15)</li>
+ *   <li>{@code load.thinkMs} – pausa de cada usuário entre fluxos (padrão 1000)</li>
+ *   <li>{@code load.threads} – {@code virtual} (padrão) ou {@code platform}</li>
+ *   <li>{@code load.connections} – requisições em voo (padrão {@code http.pool.maxPerRoute}, 32)</li>
+ * </ul>
+ *
+ * Execução: {@code mvn -Pjava21,load test -Dload.users=10,100,1000,10000}
+ */
+public class VirtualUserLoad {
+
+    private static final Log LOG = Log.get("LOAD");
+    /** Espera por vaga em voo somada por fluxo. */
+    static final String QUEUE = "FILA (vaga em voo)";
+    private static final int CONNECTIONS = Integer.getInteger("load.connections",
+            Integer.getInteger("http.pool.maxPerRoute", 32));
+
+    private final int users;
+    private final Duration duration;
+    private final long thinkNanos;
+    private final boolean virtual;
+    /** Requisições em voo, como as conexões do pool HTTP dos testes. */
+    private final Semaphore connections = new Semaphore(CONNECTIONS);
+
+    public VirtualUserLoad(int users, Duration duration, Duration think, boolean virtual) {
+        this.users = users;
+        this.duration = duration;
+        this.thinkNanos = think.toNanos();
+        this.virtual = virtual;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int[] steps = Arrays.stream(System.getProperty("load.users", "10,100,1000,10000").split(","))
+                .map(String::trim).mapToInt(Integer::parseInt).toArray();
+        Duration duration = Duration.ofSeconds(Long.getLong("load.duration", 15L));
+        Duration think = Duration.ofMillis(Long.getLong("load.thinkMs", 1000L));
+        boolean virtual = !"platform".equalsIgnoreCase(System.getProperty("load.threads", "virtual"));
+
+        LOG.info("Alvo: {} | usuários {} | {} s por degrau | pausa {} ms | threads {}", ApiConfig.baseUri(),
+                Arrays.toString(steps), duration.getSeconds(), think.toMillis(), virtual ? "virtuais" : "de plataforma");
+        Metrics.shared().serveIfConfigured();
+        try {
+            List<Step> results = new ArrayList<>();
+            for (int users : steps) {
+                LoadReport report = new VirtualUserLoad(users, duration, think, virtual).run();
+                results.add(new Step(users, report, peakThreads()));
+                Log.flush();
+                report.print(System.out);
+            }
+            printScaling(System.out, results, virtual);
+        } finally {
+            ServerestStandIn.closeShared();
+            LOG.info("Métricas gravadas em {}", Metrics.shared().writeTo(Metrics.defaultFile()));
+            Metrics.shared().stopServer();
+        }
+    }
+
+    public LoadReport run() throws InterruptedException {
+        UsersApiClient client = UsersApiClient.shared();
+        String token = TokenPool.token(Principal.ADMIN);
+        LoadReport report = new LoadReport();
+        ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        try (ExecutorService executor = newExecutor()) {
+            for (int i = 0; i < users; i++) {
+                executor.execute(() -> runUser(client, token, end, report));
+            }
+            // close() espera os usuários, que param sozinhos ao passar de 'end'
+        }
+        report.finish(System.nanoTime() - start);
+        return report;
+    }
+
+    /** Um usuário: fluxos seguidos até o fim do degrau, com a pausa entre eles. */
+    private void runUser(UsersApiClient client, String token, long end, LoadReport report) {
+        // Início espalhado pela primeira pausa: sem rajada de todos os usuários juntos
+        parkNanos(ThreadLocalRandom.current().nextLong(Math.max(1L, thinkNanos)));
+        while (System.nanoTime() - end < 0) {
+            runFlow(client, token, report);
+            parkNanos(thinkNanos);
+        }
+    }
+
+    private void runFlow(UsersApiClient client, String token, LoadReport report) {
+        Flow flow = new Flow(report);
+        String id = null;
+        boolean ok = false;
+        try {
+            ApiResponse created = flow.call(LoadGenerator.CREATE, 201,
+                    () -> client.create(UserCrudFlow.createJson(TestIdentity.email("vu")), token));
+            if (created.status() != 201) {
+                return;
+            }
+            id = created.id();
+            String createdId = id;
+
+            boolean got = flow.call(LoadGenerator.GET, 200, () -> client.get(createdId)).status() == 200;
+            boolean listed = flow.call(LoadGenerator.LIST, 200, client::list).status() == 200;
+            boolean updated = flow.call(LoadGenerator.UPDATE, 200, () -> client.update(createdId,
+                    UserCrudFlow.updateJson(TestIdentity.email("vu-upd")), token)).status() == 200;
+            boolean deleted = flow.call(LoadGenerator.DELETE, 200, () -> client.delete(createdId, token)).status() == 200;
+            if (deleted) {
+                id = null;
+            }
+            ok = got && listed && updated && deleted;
+        } catch (RuntimeException e) {
+            ok = false;
+        } finally {
+            flow.finish(ok);
+            if (id != null) {
+                String leftover = id;
+                try {
+                    call(() -> client.delete(leftover, token));
+                } catch (RuntimeException ignored) {
+                    // melhor esforço: não deixa lixo, mas não mascara o erro original
+                }
+            }
+        }
+    }
+
+    /**
+     * Chamada bloqueante: a thread virtual espera a vaga e a resposta sem ocupar a
+     * carregadora.
+     */
+    private ApiResponse call(Supplier<CompletableFuture<ApiResponse>> request) {
+        connections.acquireUninterruptibly();
+        try {
+            return request.get().join();
+        } finally {
+            connections.release();
+        }
+    }
+
+    /**
+     * Um fluxo em andamento. Cada chamada é medida depois de conseguir a vaga, e a espera
+     * por ela é somada à parte: com mais usuários que {@code load.connections} a fila
+     * cresce com o degrau e esconderia a diferença entre os executores.
+     */
+    private final class Flow {
+
+        private final LoadReport report;
+        private final long start = System.nanoTime();
+        private long queuedNanos;
+
+        Flow(LoadReport report) {
+            this.report = report;
+        }
+
+        ApiResponse call(String endpoint, int expectedStatus, Supplier<CompletableFuture<ApiResponse>> request) {
+            long waitStart = System.nanoTime();
+            connections.acquireUninterruptibly();
+            long callStart = System.nanoTime();
+            queuedNanos += callStart - waitStart;
+            boolean success = false;
+            try {
+                ApiResponse response = request.get().join();
+                success = response.status() == expectedStatus;
+                return response;
+            } finally {
+                connections.release();
+                report.record(endpoint, callStart, success);
+            }
+        }
+
+        /** Fluxo sem a espera por vaga; a espera vai para {@link #QUEUE}. */
+        void finish(boolean ok) {
+            report.record(LoadGenerator.FLOW, start + queuedNanos, ok);
+            report.record(QUEUE, System.nanoTime() - queuedNanos, true);
+        }
+    }
+
+    private ExecutorService newExecutor() {
+        if (virtual) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("vu-", 1).factory());
+        }
+        AtomicInteger seq = new AtomicInteger();
+        return Executors.newFixedThreadPool(users, r -> {
+            Thread thread = new Thread(r, "vu-" + seq.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static int peakThreads() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        return threads.getPeakThreadCount();
+    }
+
+    private static void parkNanos(long nanos) {
+        long deadline = System.nanoTime() + nanos;
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private static void printScaling(PrintStream out, List<Step> steps, boolean virtual) {
+        out.printf("%n[LOAD] Escalabilidade (threads %s)%n", virtual ? "virtuais" : "de plataforma");
+        out.printf("%9s %9s %10s %7s %12s %12s %12s %12s %14s%n",
+                "Usuários", "Fluxos", "Fluxos/s", "Erros", "p50 ms", "p99 ms", "Fila p50 ms", "Fila p99 ms",
+                "Pico threads");
+        for (Step step : steps) {
+            LoadReport r = step.report();
+            long flows = r.totalRequests(LoadGenerator.FLOW);
+            out.printf(Locale.ROOT, "%9d %9d %10.1f %7d %12.2f %12.2f %12.2f %12.2f %14d%n",
+                    step.users(), flows, flows / Math.max(1e-9, r.elapsedSeconds()),
+                    r.errors(LoadGenerator.FLOW),
+                    r.percentileMillis(LoadGenerator.FLOW, 50), r.percentileMillis(LoadGenerator.FLOW, 99),
+                    r.percentileMillis(QUEUE, 50), r.percentileMillis(QUEUE, 99),
+                    step.peakThreads());
+        }
+    }
+
+    private record Step(int users, LoadReport report, int peakThreads) {
+    }
+}
@@ -0,0 +1,79 @@
+package com.carrefour.tests;
+
+import com.carrefour.utils.AdaptiveRateLimiter;
+import com.carrefour.utils.RateLimiter;
+import com.carrefour.utils.SharedState;
+import com.carrefour.utils.TokenBucket;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * O {@code acquire()} bloqueante dos limitadores em threads virtuais (perfil {@code java21}):
+ * a espera por permissão não pode prender a thread carregadora ({@code jdk.VirtualThreadPinned}).
+ */
+@Execution(ExecutionMode.SAME_THREAD)
+public class RateLimiterVirtualThreadTests {
+
+    private static final String PINNED = "jdk.VirtualThreadPinned";
+    private static final int THREADS = 20;
+
+    @Test
+    @DisplayName("✅ Threads virtuais esperando o limitador não ficam presas à carregadora")
+    public void acquire_doesNotPinVirtualThreads(@TempDir Path dir) throws Exception {
+        // 600 req/min, rajada 1: cada thread espera ~100 ms pela sua vez
+        AdaptiveRateLimiter local = new AdaptiveRateLimiter(600, 600, 600, 1, 0, 0.5, 3, Duration.ofMillis(100));
+        TokenBucket.Cell cell = new SharedState(dir.resolve("state.mmap")).bucketCell();
+        AdaptiveRateLimiter shared = new AdaptiveRateLimiter(600, 600, 600, 1, 0, 0.5, 3, Duration.ofMillis(100), cell);
+        Queue<String> pinned = new ConcurrentLinkedQueue<>();
+
+        try (RecordingStream stream = new RecordingStream()) {
+            stream.enable(PINNED).withThreshold(Duration.ZERO).withStackTrace();
+            stream.onEvent(PINNED, event -> pinned.add(threadName(event)));
+            stream.startAsync();
+
+            // Controle: park dentro de synchronized prende a carregadora, e o evento precisa aparecer
+            Object monitor = new Object();
+            Thread.ofVirtual().name("controle").start(() -> {
+                synchronized (monitor) {
+                    LockSupport.parkNanos(Duration.ofMillis(20).toNanos());
+                }
+            }).join();
+
+            List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                threads.add(Thread.ofVirtual().name("limitador-" + i).start(() -> {
+                    local.acquire();
+                    shared.acquire();
+                    RateLimiter.acquire();
+                }));
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            stream.stop();
+        }
+
+        assertTrue(pinned.contains("controle"), "A gravação deveria ver o park do controle: " + pinned);
+        assertEquals(List.of(), pinned.stream().filter(name -> name.startsWith("limitador-")).toList(),
+                "acquire() prendeu threads virtuais à carregadora");
+    }
+
+    private static String threadName(RecordedEvent event) {
+        return event.getThread() != null ? event.getThread().getJavaName() : "?";
+    }
+}